@@ -3,7 +3,11 @@ package origamieditor3d.graphics;
 import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Polygon;
+import java.awt.Rectangle;
+import java.awt.geom.Path2D;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import origamieditor3d.origami.Geometry;
@@ -42,6 +46,39 @@ public class Camera {
 		this.zoom = zoom;
 	}
 
+	/**
+	 * Creates an independent copy of the specified camera. The texture and the
+	 * space buffer are shared with the original.
+	 *
+	 * @param camera
+	 *            The camera to copy.
+	 */
+	public Camera(Camera camera) {
+
+		camPosition = camera.camPosition.clone();
+		camDirection = camera.camDirection.clone();
+		xAxis = camera.xAxis.clone();
+		yAxis = camera.yAxis.clone();
+		xShift = camera.xShift;
+		yShift = camera.yShift;
+		zoom = camera.zoom;
+		spaceBuffer = camera.spaceBuffer;
+		texture = camera.texture;
+		orientation = camera.orientation;
+	}
+
+	/**
+	 * Tells if the specified camera projects every point to the same place as
+	 * this one, not counting the {@link #getXShift() x} and {@link #getYShift() y
+	 * shift}.
+	 */
+	public boolean isSameView(Camera camera) {
+
+		return zoom == camera.zoom && Arrays.equals(camPosition, camera.camPosition)
+				&& Arrays.equals(camDirection, camera.camDirection) && Arrays.equals(xAxis, camera.xAxis)
+				&& Arrays.equals(yAxis, camera.yAxis);
+	}
+
 	private double[] camPosition;
 	private double[] camDirection;
 	private double[] xAxis;
@@ -191,117 +228,116 @@ public class Camera {
 	}
 
 	public void drawEdges(Graphics canvas, Color color, Origami origami) {
+		strokeEdges((Graphics2D) canvas, color, edgePaths(origami.getEdges(), origami.getVertices()));
+	}
 
-		canvas.setColor(color);
+	/**
+	 * Strokes the edge paths returned by {@link #edgePaths(List, List)}. Borders
+	 * and folds are drawn in the specified color, creases, where the paper lies
+	 * flat, at half its opacity.
+	 */
+	private void strokeEdges(Graphics2D canvas, Color color, Path2D[] paths) {
 
-		for (int i = 0; i < origami.getPolygonsSize(); i++) {
-
-			if (isDrawable(i, origami)) {
-
-				Polygon edges = new Polygon();
+		canvas.setColor(new Color(color.getRed(), color.getGreen(), color.getBlue(), color.getAlpha() / 2));
+		canvas.draw(paths[Origami.EDGE_CREASE]);
+		canvas.setColor(color);
+		canvas.draw(paths[Origami.EDGE_BORDER]);
+		canvas.draw(paths[Origami.EDGE_FOLD]);
+	}
 
-				for (int ii = 0; ii < origami.getPolygons().get(i).size(); ii++) {
+	/**
+	 * Collects the given edges into one path per edge type in screen
+	 * coordinates, so that each type can be stroked in one call. Every vertex
+	 * is projected at most once.
+	 *
+	 * @param edges
+	 *            The unique edges as returned by {@link Origami#getEdges()}.
+	 * @param points
+	 *            The vertices the edges point into, either in origami space or in
+	 *            paper space.
+	 * @return The paths indexed by {@link Origami#EDGE_BORDER},
+	 *         {@link Origami#EDGE_CREASE} and {@link Origami#EDGE_FOLD}.
+	 */
+	private Path2D[] edgePaths(List<int[]> edges, List<double[]> points) {
+
+		Path2D[] paths = new Path2D[3];
+		for (int i = 0; i < paths.length; i++) {
+			paths[i] = new Path2D.Float(Path2D.WIND_NON_ZERO, edges.size() * 2);
+		}
+		int[][] proj = new int[points.size()][];
+		for (int[] edge : edges) {
 
-					edges.addPoint(
-							(short) (projection(origami.getVertices().get(origami.getPolygons().get(i).get(ii)))[0])
-									+ xShift,
-							(short) (projection(origami.getVertices().get(origami.getPolygons().get(i).get(ii)))[1])
-									+ yShift);
+			for (int i = 0; i < 2; i++) {
+				if (proj[edge[i]] == null) {
+					double[] p = projection(points.get(edge[i]));
+					proj[edge[i]] = new int[] { (short) p[0] + xShift, (short) p[1] + yShift };
 				}
-				canvas.drawPolygon(edges);
 			}
+			paths[edge[2]].moveTo(proj[edge[0]][0], proj[edge[0]][1]);
+			paths[edge[2]].lineTo(proj[edge[1]][0], proj[edge[1]][1]);
 		}
+		return paths;
 	}
 
 	public String drawEdges(int x, int y, Origami origami) {
 
-		String edges = "1 w ";
-
-		for (int i = 0; i < origami.getPolygonsSize(); i++) {
-
-			if (isDrawable(i, origami)) {
-
-				edges += Integer.toString(
-						(int) (projection(origami.getVertices().get(origami.getPolygons().get(i).get(0)))[0]) + x);
-				edges += " ";
-				edges += Integer.toString(
-						(int) (projection(origami.getVertices().get(origami.getPolygons().get(i).get(0)))[1]) + y);
-				edges += " m ";
-
-				for (int ii = 1; ii < origami.getPolygons().get(i).size(); ii++) {
-					edges += Integer.toString(
-							(int) (projection(origami.getVertices().get(origami.getPolygons().get(i).get(ii)))[0]) + x);
-					edges += " ";
-					edges += Integer.toString(
-							(int) (projection(origami.getVertices().get(origami.getPolygons().get(i).get(ii)))[1]) + y);
-					edges += " l ";
-				}
-				edges += Integer.toString(
-						(int) (projection(origami.getVertices().get(origami.getPolygons().get(i).get(0)))[0]) + x);
-				edges += " ";
-				edges += Integer.toString(
-						(int) (projection(origami.getVertices().get(origami.getPolygons().get(i).get(0)))[1]) + y);
-				edges += " l S ";
-			}
+		StringBuilder edges = new StringBuilder();
+		try {
+			drawEdges(edges, x, y, origami);
 		}
-
-		return edges;
+		catch (IOException ex) {
+		}
+		return edges.toString();
 	}
 
-	public void drawPreview(Graphics canvas, Color color, Origami origami, double[] ppoint, double[] pnormal) {
-
-		double[] cp_tmp = camPosition;
-		double[] cd_tmp = camDirection;
-		double[] x_tmp = xAxis;
-		double[] y_tmp = yAxis;
-
-		camPosition = Geometry.reflection(camPosition, ppoint, pnormal);
-		camDirection = Geometry.reflection(camDirection, Geometry.nullvector, pnormal);
-		xAxis = Geometry.reflection(xAxis, Geometry.nullvector, pnormal);
-		yAxis = Geometry.reflection(yAxis, Geometry.nullvector, pnormal);
-
-		drawEdges(canvas, color, origami);
-
-		camPosition = cp_tmp;
-		camDirection = cd_tmp;
-		xAxis = x_tmp;
-		yAxis = y_tmp;
+	/**
+	 * Writes the edges of the origami as PDF content to the specified stream,
+	 * with the origin of the projection at the point (x, y). Creases are
+	 * stroked in one path with half the line width, then borders and folds in
+	 * another, leaving the line width at 1.
+	 */
+	public void drawEdges(Appendable edges, int x, int y, Origami origami) throws IOException {
+
+		StringBuilder creases = new StringBuilder();
+		StringBuilder lines = new StringBuilder();
+		for (int[] edge : origami.getEdges()) {
+
+			StringBuilder path = edge[2] == Origami.EDGE_CREASE ? creases : lines;
+			double[] p1 = projection(origami.getVertices().get(edge[0]));
+			double[] p2 = projection(origami.getVertices().get(edge[1]));
+			path.append((int) p1[0] + x).append(' ').append((int) p1[1] + y).append(" m ");
+			path.append((int) p2[0] + x).append(' ').append((int) p2[1] + y).append(" l ");
+		}
+		if (creases.length() > 0) {
+			edges.append("0.5 w ").append(creases).append("S ");
+		}
+		edges.append("1 w ").append(lines).append("S ");
 	}
 
 	public String drawSelection(int x, int y, double[] ppoint, double[] pnormal, int polygonIndex, Origami origami) {
 
-		String selection = "0.8 0.8 0.8 rg ";
+		StringBuilder selection = new StringBuilder();
+		try {
+			drawSelection(selection, x, y, ppoint, pnormal, polygonIndex, origami);
+		}
+		catch (IOException ex) {
+		}
+		return selection.toString();
+	}
 
-		List<Integer> kijeloles = origami.polygonSelect(ppoint, pnormal, polygonIndex);
-		for (int i : kijeloles) {
+	/**
+	 * Writes the polygons selected by a fold as filled PDF paths to the
+	 * specified stream, with the origin of the projection at the point (x, y).
+	 */
+	public void drawSelection(Appendable selection, int x, int y, double[] ppoint, double[] pnormal,
+			int polygonIndex, Origami origami) throws IOException {
 
+		selection.append("0.8 0.8 0.8 rg ");
+		for (int i : origami.polygonSelect(ppoint, pnormal, polygonIndex)) {
 			if (isDrawable(i, origami)) {
-
-				selection += Integer.toString(
-						(int) (projection(origami.getVertices().get(origami.getPolygons().get(i).get(0)))[0]) + x);
-				selection += " ";
-				selection += Integer.toString(
-						(int) (projection(origami.getVertices().get(origami.getPolygons().get(i).get(0)))[1]) + y);
-				selection += " m ";
-
-				for (int ii = 1; ii < origami.getPolygons().get(i).size(); ii++) {
-					selection += Integer.toString(
-							(int) (projection(origami.getVertices().get(origami.getPolygons().get(i).get(ii)))[0]) + x);
-					selection += " ";
-					selection += Integer.toString(
-							(int) (projection(origami.getVertices().get(origami.getPolygons().get(i).get(ii)))[1]) + y);
-					selection += " l ";
-				}
-				selection += Integer.toString(
-						(int) (projection(origami.getVertices().get(origami.getPolygons().get(i).get(0)))[0]) + x);
-				selection += " ";
-				selection += Integer.toString(
-						(int) (projection(origami.getVertices().get(origami.getPolygons().get(i).get(0)))[1]) + y);
-				selection += " l f ";
+				pdfPolygon(selection, x, y, origami.getPolygons().get(i), origami.getVertices());
 			}
 		}
-
-		return selection;
 	}
 
 	public boolean isDrawable(int polygonIndex, Origami origami) {
@@ -419,6 +455,15 @@ public class Camera {
 	}
 
 	public void drawFaces(Graphics canvas, int rgb, Origami origami) {
+		drawFaces(canvas, rgb, origami, 0);
+	}
+
+	/**
+	 * Same as {@link #drawFaces(Graphics, int, Origami)}, except that polygons
+	 * whose projection fits in a {@code minSize} by {@code minSize} pixel box are
+	 * skipped. Meant for draft rendering.
+	 */
+	public void drawFaces(Graphics canvas, int rgb, Origami origami, int minSize) {
 
 		for (int i = 0; i < origami.getPolygonsSize(); i++) {
 
@@ -459,6 +504,12 @@ public class Camera {
 									+ yShift);
 				}
 
+				if (minSize > 0) {
+					Rectangle bounds = path.getBounds();
+					if (bounds.width < minSize && bounds.height < minSize) {
+						continue;
+					}
+				}
 				canvas.fillPolygon(path);
 			}
 		}
@@ -466,60 +517,56 @@ public class Camera {
 
 	public String drawFaces(int x, int y, Origami origami) {
 
-		String out = "0.8 0.8 0.8 rg ";
+		StringBuilder out = new StringBuilder();
+		try {
+			drawFaces(out, x, y, origami);
+		}
+		catch (IOException ex) {
+		}
+		return out.toString();
+	}
 
-		for (int i = 0; i < origami.getPolygonsSize(); i++) {
+	/**
+	 * Writes the faces of the origami as filled PDF paths to the specified
+	 * stream, with the origin of the projection at the point (x, y).
+	 */
+	public void drawFaces(Appendable out, int x, int y, Origami origami) throws IOException {
 
+		out.append("0.8 0.8 0.8 rg ");
+		for (int i = 0; i < origami.getPolygonsSize(); i++) {
 			if (isDrawable(i, origami)) {
-
-				out += Integer.toString(
-						(int) (projection(origami.getVertices().get(origami.getPolygons().get(i).get(0)))[0]) + x);
-				out += " ";
-				out += Integer.toString(
-						(int) (projection(origami.getVertices().get(origami.getPolygons().get(i).get(0)))[1]) + y);
-				out += " m ";
-
-				for (int ii = 1; ii < origami.getPolygons().get(i).size(); ii++) {
-					out += Integer.toString(
-							(int) (projection(origami.getVertices().get(origami.getPolygons().get(i).get(ii)))[0]) + x);
-					out += " ";
-					out += Integer.toString(
-							(int) (projection(origami.getVertices().get(origami.getPolygons().get(i).get(ii)))[1]) + y);
-					out += " l ";
-				}
-				out += Integer.toString(
-						(int) (projection(origami.getVertices().get(origami.getPolygons().get(i).get(0)))[0]) + x);
-				out += " ";
-				out += Integer.toString(
-						(int) (projection(origami.getVertices().get(origami.getPolygons().get(i).get(0)))[1]) + y);
-				out += " l f ";
+				pdfPolygon(out, x, y, origami.getPolygons().get(i), origami.getVertices());
 			}
 		}
-
-		return out;
 	}
 
-	public void drawCreasePattern(Graphics canvas, Color color, Origami origami) {
+	/**
+	 * Writes a closed, filled PDF path through the projections of the specified
+	 * vertices. Each vertex is projected once.
+	 */
+	private void pdfPolygon(Appendable out, int x, int y, List<Integer> polygon, List<double[]> vertices)
+			throws IOException {
 
-		canvas.setColor(color);
+		String first = null;
+		for (int ii = 0; ii < polygon.size(); ii++) {
 
-		for (int i = 0; i < origami.getPolygonsSize(); i++) {
+			double[] p = projection(vertices.get(polygon.get(ii)));
+			String point = Integer.toString((int) (p[0]) + x) + " " + Integer.toString((int) (p[1]) + y);
+			if (first == null) {
 
-			if (isDrawable(i, origami)) {
-
-				Polygon ut = new Polygon();
-
-				for (int ii = 0; ii < origami.getPolygons().get(i).size(); ii++) {
-
-					ut.addPoint(
-							(short) (projection(origami.getVertices2d().get(origami.getPolygons().get(i).get(ii)))[0])
-									+ xShift,
-							(short) (projection(origami.getVertices2d().get(origami.getPolygons().get(i).get(ii)))[1])
-									+ yShift);
-				}
-				canvas.drawPolygon(ut);
+				first = point;
+				out.append(point).append(" m ");
+			}
+			else {
+				out.append(point).append(" l ");
 			}
 		}
+		out.append(first).append(" l f ");
+	}
+
+	public void drawCreasePattern(Graphics canvas, Color color, Origami origami) {
+
+		strokeEdges((Graphics2D) canvas, color, edgePaths(origami.getEdges(), origami.getVertices2d()));
 	}
 
 	public void drawFoldingLine(Graphics canvas, Color color, double[] ppoint, double[] pnormal, Origami origami) {
@@ -546,7 +593,22 @@ public class Camera {
 
 	public String pfdLiner(int x, int y, double[] ppoint, double[] pnormal) {
 
-		String out = "0.4 0.4 0.4 RG [5 5] 0 d ";
+		StringBuilder out = new StringBuilder();
+		try {
+			pfdLiner(out, x, y, ppoint, pnormal);
+		}
+		catch (IOException ex) {
+		}
+		return out.toString();
+	}
+
+	/**
+	 * Writes the dashed line of a folding plane as PDF content to the specified
+	 * stream, clipped to the figure frame around the point (x, y).
+	 */
+	public void pfdLiner(Appendable out, int x, int y, double[] ppoint, double[] pnormal) throws IOException {
+
+		out.append("0.4 0.4 0.4 RG [5 5] 0 d ");
 		double[] pnormal_2D = projection0(pnormal);
 		double[] ppoint_2D = projection(ppoint);
 		boolean lineto = false;
@@ -559,27 +621,27 @@ public class Camera {
 			if (ppoint_2D[0] + pdir_2D[0] * (bound - ppoint_2D[1]) <= bound
 					&& ppoint_2D[0] + pdir_2D[0] * (bound - ppoint_2D[1]) >= -bound) {
 
-				out += Integer.toString((int) (ppoint_2D[0] + pdir_2D[0] * (bound - ppoint_2D[1])) + x);
-				out += " ";
-				out += Integer.toString((int) (ppoint_2D[1] + pdir_2D[1] * (bound - ppoint_2D[1])) + y);
-				out += " m ";
+				out.append(Integer.toString((int) (ppoint_2D[0] + pdir_2D[0] * (bound - ppoint_2D[1])) + x));
+				out.append(" ");
+				out.append(Integer.toString((int) (ppoint_2D[1] + pdir_2D[1] * (bound - ppoint_2D[1])) + y));
+				out.append(" m ");
 				lineto = true;
 			}
 
 			if (ppoint_2D[0] + pdir_2D[0] * (-bound - ppoint_2D[1]) <= bound
 					&& ppoint_2D[0] + pdir_2D[0] * (-bound - ppoint_2D[1]) >= -bound) {
 
-				out += Integer.toString((int) (ppoint_2D[0] + pdir_2D[0] * (-bound - ppoint_2D[1])) + x);
-				out += " ";
-				out += Integer.toString((int) (ppoint_2D[1] + pdir_2D[1] * (-bound - ppoint_2D[1])) + y);
+				out.append(Integer.toString((int) (ppoint_2D[0] + pdir_2D[0] * (-bound - ppoint_2D[1])) + x));
+				out.append(" ");
+				out.append(Integer.toString((int) (ppoint_2D[1] + pdir_2D[1] * (-bound - ppoint_2D[1])) + y));
 				if (lineto) {
 
-					out += " l ";
+					out.append(" l ");
 					lineto = false;
 				}
 				else {
 
-					out += " m ";
+					out.append(" m ");
 					lineto = true;
 				}
 			}
@@ -591,19 +653,19 @@ public class Camera {
 				if (ppoint_2D[1] + pdir_2D[1] * (-bound - ppoint_2D[0]) <= bound
 						&& ppoint_2D[1] + pdir_2D[1] * (-bound - ppoint_2D[0]) >= -bound) {
 
-					out += Integer.toString((int) (ppoint_2D[0] + pdir_2D[0] * (-bound - ppoint_2D[0])) + x);
-					out += " ";
-					out += Integer.toString((int) (ppoint_2D[1] + pdir_2D[1] * (-bound - ppoint_2D[0])) + y);
-					out += " l ";
+					out.append(Integer.toString((int) (ppoint_2D[0] + pdir_2D[0] * (-bound - ppoint_2D[0])) + x));
+					out.append(" ");
+					out.append(Integer.toString((int) (ppoint_2D[1] + pdir_2D[1] * (-bound - ppoint_2D[0])) + y));
+					out.append(" l ");
 				}
 
 				if (ppoint_2D[1] + pdir_2D[1] * (bound - ppoint_2D[0]) <= bound
 						&& ppoint_2D[1] + pdir_2D[1] * (bound - ppoint_2D[0]) >= -bound) {
 
-					out += Integer.toString((int) (ppoint_2D[0] + pdir_2D[0] * (bound - ppoint_2D[0])) + x);
-					out += " ";
-					out += Integer.toString((int) (ppoint_2D[1] + pdir_2D[1] * (bound - ppoint_2D[0])) + y);
-					out += " l ";
+					out.append(Integer.toString((int) (ppoint_2D[0] + pdir_2D[0] * (bound - ppoint_2D[0])) + x));
+					out.append(" ");
+					out.append(Integer.toString((int) (ppoint_2D[1] + pdir_2D[1] * (bound - ppoint_2D[0])) + y));
+					out.append(" l ");
 				}
 			}
 		}
@@ -614,27 +676,27 @@ public class Camera {
 			if (ppoint_2D[1] + pdir_2D[1] * (-bound - ppoint_2D[0]) <= bound
 					&& ppoint_2D[1] + pdir_2D[1] * (-bound - ppoint_2D[0]) >= -bound) {
 
-				out += Integer.toString((int) (ppoint_2D[0] + pdir_2D[0] * (-bound - ppoint_2D[0])) + x);
-				out += " ";
-				out += Integer.toString((int) (ppoint_2D[1] + pdir_2D[1] * (-bound - ppoint_2D[0])) + y);
-				out += " m ";
+				out.append(Integer.toString((int) (ppoint_2D[0] + pdir_2D[0] * (-bound - ppoint_2D[0])) + x));
+				out.append(" ");
+				out.append(Integer.toString((int) (ppoint_2D[1] + pdir_2D[1] * (-bound - ppoint_2D[0])) + y));
+				out.append(" m ");
 				lineto = true;
 			}
 
 			if (ppoint_2D[1] + pdir_2D[1] * (bound - ppoint_2D[0]) <= bound
 					&& ppoint_2D[1] + pdir_2D[1] * (bound - ppoint_2D[0]) >= -bound) {
 
-				out += Integer.toString((int) (ppoint_2D[0] + pdir_2D[0] * (bound - ppoint_2D[0])) + x);
-				out += " ";
-				out += Integer.toString((int) (ppoint_2D[1] + pdir_2D[1] * (bound - ppoint_2D[0])) + y);
+				out.append(Integer.toString((int) (ppoint_2D[0] + pdir_2D[0] * (bound - ppoint_2D[0])) + x));
+				out.append(" ");
+				out.append(Integer.toString((int) (ppoint_2D[1] + pdir_2D[1] * (bound - ppoint_2D[0])) + y));
 				if (lineto) {
 
-					out += " l ";
+					out.append(" l ");
 					lineto = false;
 				}
 				else {
 
-					out += " m ";
+					out.append(" m ");
 					lineto = true;
 				}
 			}
@@ -646,25 +708,24 @@ public class Camera {
 				if (ppoint_2D[0] + pdir_2D[0] * (bound - ppoint_2D[1]) <= bound
 						&& ppoint_2D[0] + pdir_2D[0] * (bound - ppoint_2D[1]) >= -bound) {
 
-					out += Integer.toString((int) (ppoint_2D[0] + pdir_2D[0] * (bound - ppoint_2D[1])) + x);
-					out += " ";
-					out += Integer.toString((int) (ppoint_2D[1] + pdir_2D[1] * (bound - ppoint_2D[1])) + y);
-					out += " l ";
+					out.append(Integer.toString((int) (ppoint_2D[0] + pdir_2D[0] * (bound - ppoint_2D[1])) + x));
+					out.append(" ");
+					out.append(Integer.toString((int) (ppoint_2D[1] + pdir_2D[1] * (bound - ppoint_2D[1])) + y));
+					out.append(" l ");
 				}
 
 				if (ppoint_2D[0] + pdir_2D[0] * (-bound - ppoint_2D[1]) <= bound
 						&& ppoint_2D[0] + pdir_2D[0] * (-bound - ppoint_2D[1]) >= -bound) {
 
-					out += Integer.toString((int) (ppoint_2D[0] + pdir_2D[0] * (-bound - ppoint_2D[1])) + x);
-					out += " ";
-					out += Integer.toString((int) (ppoint_2D[1] + pdir_2D[1] * (-bound - ppoint_2D[1])) + y);
-					out += " l ";
+					out.append(Integer.toString((int) (ppoint_2D[0] + pdir_2D[0] * (-bound - ppoint_2D[1])) + x));
+					out.append(" ");
+					out.append(Integer.toString((int) (ppoint_2D[1] + pdir_2D[1] * (-bound - ppoint_2D[1])) + y));
+					out.append(" l ");
 				}
 			}
 		}
 
-		out += "S [ ] 0 d 0.0 0.0 0.0 RG ";
-		return out;
+		out.append("S [ ] 0 d 0.0 0.0 0.0 RG ");
 	}
 
 	final static public int PDF_NORTH = 'F';
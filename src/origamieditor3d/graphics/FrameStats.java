@@ -0,0 +1,195 @@
+package origamieditor3d.graphics;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects rendering statistics of a panel: the time spent in each stage of
+ * the last frame, the number of polygons and vertices drawn, and the total
+ * times of the last {@link #window} frames, from which percentiles and a
+ * histogram are computed. Can be read programmatically (e. g. by benchmarks)
+ * or {@link #paint(Graphics, int, int) painted} as an overlay. <br>
+ * All methods are thread-safe, since frames may be rendered off the event
+ * dispatch thread.
+ *
+ * @since 2026-10-19
+ */
+public class FrameStats {
+
+	final static public int window = 240;
+	final static private int histogram_bins = 24;
+
+	private final Map<String, Long> stages;
+	private final long[] frame_times;
+	private int frame_count;
+	private int polygons, vertices;
+
+	public FrameStats() {
+
+		stages = new LinkedHashMap<>();
+		frame_times = new long[window];
+		frame_count = 0;
+	}
+
+	/**
+	 * Records the time taken by a stage of the current frame.
+	 *
+	 * @param name
+	 *            The name of the stage, e. g. {@code "faces"}.
+	 * @param nanos
+	 *            The duration in nanoseconds.
+	 */
+	public synchronized void stage(String name, long nanos) {
+		stages.put(name, nanos);
+	}
+
+	/**
+	 * Records a finished frame.
+	 *
+	 * @param nanos
+	 *            The time taken by the whole frame in nanoseconds.
+	 * @param polygons
+	 *            The number of polygons drawn.
+	 * @param vertices
+	 *            The number of vertices drawn.
+	 */
+	public synchronized void frame(long nanos, int polygons, int vertices) {
+
+		frame_times[frame_count % window] = nanos;
+		frame_count++;
+		this.polygons = polygons;
+		this.vertices = vertices;
+	}
+
+	public synchronized void clear() {
+
+		stages.clear();
+		frame_count = 0;
+		polygons = 0;
+		vertices = 0;
+	}
+
+	/**
+	 * Returns the number of frames recorded since the last {@link #clear()},
+	 * including the ones that have already left the rolling window.
+	 */
+	public synchronized int getFrameCount() {
+		return frame_count;
+	}
+
+	public synchronized int getPolygonCount() {
+		return polygons;
+	}
+
+	public synchronized int getVertexCount() {
+		return vertices;
+	}
+
+	/**
+	 * Returns the duration of each stage of the last frame in nanoseconds, in
+	 * the order they were first recorded.
+	 */
+	public synchronized Map<String, Long> getStages() {
+		return new LinkedHashMap<>(stages);
+	}
+
+	/**
+	 * Returns the total times of the frames in the rolling window in
+	 * nanoseconds, oldest first.
+	 */
+	public synchronized long[] getFrameTimes() {
+
+		int count = Math.min(frame_count, window);
+		long[] times = new long[count];
+		for (int i = 0; i < count; i++) {
+			times[i] = frame_times[(frame_count - count + i) % window];
+		}
+		return times;
+	}
+
+	/**
+	 * Returns the given percentile of the frame times in the rolling window.
+	 *
+	 * @param p
+	 *            The percentile between 0 and 100.
+	 * @return The frame time in nanoseconds, or 0 if no frames were recorded.
+	 */
+	public long percentile(double p) {
+
+		long[] times = getFrameTimes();
+		if (times.length == 0) {
+			return 0;
+		}
+		Arrays.sort(times);
+		int index = (int) Math.ceil(p / 100 * times.length) - 1;
+		return times[Math.max(0, Math.min(index, times.length - 1))];
+	}
+
+	/**
+	 * Sorts the frame times in the rolling window into {@code bins} bins of
+	 * equal width between 0 and {@code max} nanoseconds. Longer frames count
+	 * in the last bin.
+	 */
+	public int[] histogram(int bins, long max) {
+
+		int[] counts = new int[bins];
+		for (long time : getFrameTimes()) {
+			counts[(int) Math.min(time * bins / Math.max(max, 1), bins - 1)]++;
+		}
+		return counts;
+	}
+
+	/**
+	 * Draws the statistics in a box whose top left corner is at the specified
+	 * point.
+	 */
+	public void paint(Graphics g, int x, int y) {
+
+		long p50 = percentile(50);
+		long p99 = percentile(99);
+		List<String> lines = new ArrayList<>();
+		lines.add(String.format("p50 %.1f ms  p99 %.1f ms", p50 / 1e6, p99 / 1e6));
+		for (Map.Entry<String, Long> stage : getStages().entrySet()) {
+			lines.add(String.format("%s %.1f ms", stage.getKey(), stage.getValue() / 1e6));
+		}
+		lines.add(getPolygonCount() + " polygons, " + getVertexCount() + " vertices");
+
+		g.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
+		FontMetrics fm = g.getFontMetrics();
+		int width = 0;
+		for (String line : lines) {
+			width = Math.max(width, fm.stringWidth(line));
+		}
+		width = Math.max(width, histogram_bins * 4) + 8;
+		int hist_height = 24;
+		int height = lines.size() * fm.getHeight() + hist_height + 12;
+
+		g.setColor(new Color(0, 0, 0, 160));
+		g.fillRect(x, y, width, height);
+		g.setColor(Color.WHITE);
+		for (int i = 0; i < lines.size(); i++) {
+			g.drawString(lines.get(i), x + 4, y + 4 + fm.getAscent() + i * fm.getHeight());
+		}
+
+		// Frame times up to twice the p99
+		int[] bins = histogram(histogram_bins, Math.max(p99 * 2, 1));
+		int maxbin = 1;
+		for (int bin : bins) {
+			maxbin = Math.max(maxbin, bin);
+		}
+		int base = y + height - 4;
+		g.setColor(Color.GREEN);
+		for (int i = 0; i < bins.length; i++) {
+
+			int h = bins[i] * hist_height / maxbin;
+			g.fillRect(x + 4 + i * 4, base - h, 3, h);
+		}
+	}
+}
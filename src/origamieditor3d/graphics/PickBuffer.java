@@ -0,0 +1,119 @@
+package origamieditor3d.graphics;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Polygon;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import origamieditor3d.origami.Geometry;
+import origamieditor3d.origami.Origami;
+
+/**
+ * An ID buffer of the 3D view: every pixel holds the index of the frontmost
+ * polygon covering it, so the polygon under the mouse can be looked up in
+ * constant time. Polygons are drawn from back to front in the order of their
+ * average depth, the same way {@link Camera#updateBuffer(Origami)} encodes
+ * polygon indices as colors. <br>
+ * The buffer remembers the origami, its {@link Origami#version() version} and
+ * the camera view it was drawn for, so that it can be redrawn lazily.
+ *
+ * @since 2026-10-19
+ */
+public class PickBuffer {
+
+	private final int width, height;
+	private final int[] ids;
+
+	private final Origami origami;
+	private final long version;
+	private final Camera view;
+
+	public PickBuffer(Origami origami, Camera camera, int width, int height) {
+
+		this.origami = origami;
+		this.version = origami.version();
+		this.view = new Camera(camera);
+		this.width = width;
+		this.height = height;
+
+		BufferedImage map = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		Graphics2D canvas = map.createGraphics();
+
+		// Project every vertex once
+		List<double[]> vertices = origami.getVertices();
+		int[] xs = new int[vertices.size()];
+		int[] ys = new int[vertices.size()];
+		final double[] depths = new double[vertices.size()];
+		double[] camDirection = camera.getCamDirection();
+		for (int i = 0; i < vertices.size(); i++) {
+
+			double[] proj = camera.projection(vertices.get(i));
+			xs[i] = (int) proj[0] + camera.getXShift();
+			ys[i] = (int) proj[1] + camera.getYShift();
+			depths[i] = Geometry.scalarProduct(vertices.get(i), camDirection);
+		}
+
+		List<Integer> order = new ArrayList<>();
+		final double[] polydepths = new double[origami.getPolygonsSize()];
+		for (int i = 0; i < origami.getPolygonsSize(); i++) {
+
+			if (camera.isDrawable(i, origami)) {
+
+				List<Integer> poly = origami.getPolygons().get(i);
+				for (int vert : poly) {
+					polydepths[i] += depths[vert];
+				}
+				polydepths[i] /= poly.size();
+				order.add(i);
+			}
+		}
+		// The greater the depth, the closer to the camera
+		Collections.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer a, Integer b) {
+				return Double.compare(polydepths[a], polydepths[b]);
+			}
+		});
+
+		for (int i : order) {
+
+			List<Integer> poly = origami.getPolygons().get(i);
+			Polygon path = new Polygon();
+			for (int vert : poly) {
+				path.addPoint(xs[vert], ys[vert]);
+			}
+			canvas.setColor(new Color(i + 1));
+			canvas.fillPolygon(path);
+		}
+		canvas.dispose();
+
+		ids = ((DataBufferInt) map.getRaster().getDataBuffer()).getData();
+	}
+
+	/**
+	 * Tells if this buffer still describes the given state.
+	 */
+	public boolean isValidFor(Origami origami, Camera camera, int width, int height) {
+		return this.origami == origami && version == origami.version() && this.width == width
+				&& this.height == height && view.isSameView(camera);
+	}
+
+	/**
+	 * Returns the index of the frontmost polygon at the specified pixel.
+	 *
+	 * @return The index of the polygon in the {@link Origami#getPolygons()
+	 *         polygons} list, or -1 if there is none.
+	 */
+	public int polygonAt(int x, int y) {
+
+		if (x < 0 || y < 0 || x >= width || y >= height) {
+			return -1;
+		}
+		return (ids[y * width + x] & 0xFFFFFF) - 1;
+	}
+}
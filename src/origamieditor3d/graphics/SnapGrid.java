@@ -0,0 +1,138 @@
+package origamieditor3d.graphics;
+
+import java.util.List;
+
+import origamieditor3d.origami.Origami;
+
+/**
+ * A uniform grid over a set of screen-space points (such as the ones returned
+ * by {@link Camera#alignmentPoints(Origami, int...) alignmentPoints}), used to
+ * find the snap point closest to the mouse without scanning every point. <br>
+ * The grid remembers the origami, its {@link Origami#version() version} and the
+ * camera view it was built for, so that it can be rebuilt lazily.
+ *
+ * @since 2026-10-19
+ */
+public class SnapGrid {
+
+	final static public int cell_size = 16;
+
+	private final int minX, minY, columns, rows;
+	private final int[] cellStart;
+	private final int[] pointsX, pointsY;
+
+	private final Origami origami;
+	private final long version;
+	private final Camera view;
+	private final int tag;
+
+	/**
+	 * @param points
+	 *            The points to index as {@code {x, y}} pairs.
+	 * @param origami
+	 *            The origami the points were computed from.
+	 * @param camera
+	 *            The camera the points were projected with.
+	 * @param tag
+	 *            Anything else the points depend on, e. g. the snap denominators.
+	 */
+	public SnapGrid(List<int[]> points, Origami origami, Camera camera, int tag) {
+
+		this.origami = origami;
+		this.version = origami.version();
+		this.view = new Camera(camera);
+		this.tag = tag;
+
+		int x0 = 0, y0 = 0, x1 = 0, y1 = 0;
+		for (int i = 0; i < points.size(); i++) {
+
+			int[] pt = points.get(i);
+			if (i == 0 || pt[0] < x0) {
+				x0 = pt[0];
+			}
+			if (i == 0 || pt[1] < y0) {
+				y0 = pt[1];
+			}
+			if (i == 0 || pt[0] > x1) {
+				x1 = pt[0];
+			}
+			if (i == 0 || pt[1] > y1) {
+				y1 = pt[1];
+			}
+		}
+		minX = x0;
+		minY = y0;
+		columns = (x1 - x0) / cell_size + 1;
+		rows = (y1 - y0) / cell_size + 1;
+
+		// Counting sort of the points by cell
+		cellStart = new int[columns * rows + 1];
+		for (int[] pt : points) {
+			cellStart[cellOf(pt[0], pt[1]) + 1]++;
+		}
+		for (int i = 0; i < columns * rows; i++) {
+			cellStart[i + 1] += cellStart[i];
+		}
+		int[] fill = new int[columns * rows];
+		pointsX = new int[points.size()];
+		pointsY = new int[points.size()];
+		for (int[] pt : points) {
+
+			int cell = cellOf(pt[0], pt[1]);
+			int pos = cellStart[cell] + fill[cell]++;
+			pointsX[pos] = pt[0];
+			pointsY[pos] = pt[1];
+		}
+	}
+
+	private int cellOf(int x, int y) {
+		return ((y - minY) / cell_size) * columns + (x - minX) / cell_size;
+	}
+
+	/**
+	 * Tells if this grid still describes the given state.
+	 */
+	public boolean isValidFor(Origami origami, Camera camera, int tag) {
+		return this.origami == origami && version == origami.version() && this.tag == tag && view.isSameView(camera);
+	}
+
+	/**
+	 * Finds the point closest to {@code (x, y)} whose squared distance from it is
+	 * less than {@code sqradius}. Does not allocate.
+	 *
+	 * @return The index of the point, which can be passed to {@link #getX(int)}
+	 *         and {@link #getY(int)}, or -1 if there is no such point.
+	 */
+	public int nearest(int x, int y, int sqradius) {
+
+		int reach = (int) Math.sqrt(sqradius) / cell_size + 1;
+		int cx = (x - minX) / cell_size;
+		int cy = (y - minY) / cell_size;
+		int best = -1;
+		long bestdist = sqradius;
+
+		for (int row = Math.max(cy - reach, 0); row <= Math.min(cy + reach, rows - 1); row++) {
+			for (int col = Math.max(cx - reach, 0); col <= Math.min(cx + reach, columns - 1); col++) {
+
+				int cell = row * columns + col;
+				for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+
+					long dist = (long) (x - pointsX[i]) * (x - pointsX[i]) + (long) (y - pointsY[i]) * (y - pointsY[i]);
+					if (dist < bestdist) {
+						bestdist = dist;
+						best = i;
+					}
+				}
+			}
+		}
+		return best;
+	}
+
+	public int getX(int index) {
+		return pointsX[index];
+	}
+
+	public int getY(int index) {
+		return pointsY[index];
+	}
+}
@@ -3,15 +3,24 @@ package origamieditor3d.io;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.nio.charset.Charset;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
@@ -38,10 +47,59 @@ public class Export {
     final static public int page_height = 842;
     final static public int figure_frame = 200;
 
+    /**
+     * The number of threads frames of animations are rendered on.
+     */
+    final static public int render_threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Shared by all exports, so that several animations exported at the same
+     * time do not start more threads than there are processors.
+     */
+    final static private ExecutorService renderers = Executors.newFixedThreadPool(render_threads,
+            new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+
+                    Thread thread = new Thread(r, "Export renderer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    /**
+     * Receives the progress of an export as it goes on.
+     */
+    public interface Progress {
+
+        /**
+         * Called each time a page, frame or other unit of work is done.
+         * Throwing an {@link InterruptedException} aborts the export.
+         *
+         * @param done The number of units done.
+         * @param total The number of units in the whole export.
+         */
+        void update(int done, int total) throws InterruptedException;
+    }
+
+    static private void report(Progress progress, int done, int total) throws InterruptedException {
+
+        if (progress != null) {
+            progress.update(done, total);
+        }
+    }
+
     static public void exportCTM(Origami origami, String filename, BufferedImage texture) throws Exception {
+        exportCTM(origami, filename, texture, null);
+    }
+
+    static public void exportCTM(Origami origami, String filename, BufferedImage texture, Progress progress)
+            throws Exception {
 
         try {
 
+            report(progress, 0, 1);
+
             Camera kamera = new Camera(0, 0, 1);
             kamera.adjust(origami);
 
@@ -302,6 +360,7 @@ public class Export {
             System.out.println(str.getChannel().position() + " bytes written to " + filename);
             str.close();
             kamera.unadjust(origami);
+            report(progress, 1, 1);
 
         } catch (IOException exc) {
             throw OrigamiException.H005;
@@ -309,20 +368,20 @@ public class Export {
     }
 
     static public void exportPDF(Origami origami, String filename, String title) throws Exception {
+        exportPDF(origami, filename, title, null);
+    }
 
-        try {
+    static public void exportPDF(Origami origami, String filename, String title, Progress progress)
+            throws Exception {
 
-            Origami origami1 = origami.copy();
-            File pdf = new File(filename);
-            if (pdf.exists()) {
-                pdf.delete();
-            }
-            FileOutputStream str = new FileOutputStream(pdf);
+        //A még ki nem írt ábrák, amiket a rajzoló szálak készítenek
+        ArrayDeque<Future<PDFWriter.Content>> abrak = new ArrayDeque<>();
+        ArrayDeque<Integer> abra_indexek = new ArrayDeque<>();
+        try (FileOutputStream str = new FileOutputStream(filename)) {
 
-            //Itt tároljuk az objektumok offszeteit
-            ArrayList<Integer> Offszetek = new ArrayList<>();
-            Offszetek.add(0);
-            int bajtszam = 0;
+            Origami origami1 = origami.copy();
+            //Az objektumok offszeteit az író tartja számon
+            PDFWriter iro = new PDFWriter(new BufferedOutputStream(str));
 
             //Megszámoljuk, hány mûvelet nem lesz külön feltüntetve
             int ures_muveletek = 0;
@@ -402,58 +461,29 @@ public class Export {
             //Egy oldalon 6 cella van (papírmérettôl függetlenül)
             int cellak_szama = origami1.getHistory().size() + forgatasok - ures_muveletek + 2;
 
-            //Fejléc
-            String fajl = "";
-            fajl += "%PDF-1.3";
-            fajl += (char) 10;
-            fajl += (char) 10;
-
             //Katalógus
-            Offszetek.add(fajl.length());
-            fajl += "1 0 obj";
-            fajl += (char) 10;
-            fajl += "<< /Type /Catalog";
-            fajl += (char) 10;
-            fajl += " /Pages 2 0 R";
-            fajl += (char) 10;
-            fajl += ">>";
-            fajl += (char) 10;
-            fajl += "endobj";
-            fajl += (char) 10;
-            fajl += (char) 10;
+            iro.beginObject(1);
+            iro.write("<< /Type /Catalog\n /Pages 2 0 R\n>>\n");
+            iro.endObject();
 
             //Kötet
-            Offszetek.add(fajl.length());
-            fajl += "2 0 obj";
-            fajl += (char) 10;
-            fajl += "<< /Type /Pages";
-            fajl += (char) 10;
-            fajl += "/Kids [";
-            fajl += "3 0 R";
+            StringBuilder kotet = new StringBuilder();
+            kotet.append("<< /Type /Pages\n/Kids [3 0 R");
 
             //Az oldalak száma a cellák számának hatoda felfelé kerekítve
             for (int i = 1; i < (int) Math.ceil((double) cellak_szama / 6); i++) {
-
-                fajl += " " + Integer.toString(i + 3) + " 0 R";
+                kotet.append(" ").append(i + 3).append(" 0 R");
             }
-            fajl += "]";
-            fajl += (char) 10;
-            fajl += "/Count " + Integer.toString((int) Math.ceil((double) cellak_szama / 6));
-            fajl += (char) 10;
-            fajl += "/MediaBox [0 0 " + Integer.toString(page_width) + " " + Integer.toString(page_height) + "]";
-            fajl += (char) 10;
-            fajl += ">>";
-            fajl += (char) 10;
-            fajl += "endobj";
-            fajl += (char) 10;
-            fajl += (char) 10;
+            kotet.append("]\n/Count ").append((int) Math.ceil((double) cellak_szama / 6)).append("\n");
+            kotet.append("/MediaBox [0 0 ").append(page_width).append(" ").append(page_height).append("]\n>>\n");
+            iro.beginObject(2);
+            iro.write(kotet.toString());
+            iro.endObject();
 
             //Oldalak
             for (int i = 0; i < (int) Math.ceil((double) cellak_szama / 6); i++) {
 
-                Offszetek.add(fajl.length());
-                fajl += "" + Integer.toString(i + 3) + " 0 obj";
-                fajl += (char) 10;
+                String fajl = "";
                 fajl += "<< /Type /Page";
                 fajl += (char) 10;
                 fajl += "/Parent 2 0 R";
@@ -495,13 +525,12 @@ public class Export {
                 fajl += (char) 10;
                 fajl += ">>";
                 fajl += (char) 10;
-                fajl += "endobj";
-                fajl += (char) 10;
-                fajl += (char) 10;
+                iro.beginObject(i + 3);
+                iro.write(fajl);
+                iro.endObject();
             }
 
             //A cím a megadott fájlnév
-            Offszetek.add(fajl.length());
             String stream;
             stream = "BT";
             stream += (char) 10;
@@ -517,21 +546,9 @@ public class Export {
             stream += (char) 10;
             stream += "ET";
             stream += (char) 10;
-            fajl += Integer.toString((int) Math.ceil((double) cellak_szama / 6) + 3) + " 0 obj";
-            fajl += (char) 10;
-            fajl += "<< /Length " + Integer.toString(stream.length()) + " >>";
-            fajl += (char) 10;
-            fajl += "stream";
-            fajl += (char) 10;
-            fajl += stream;
-            fajl += "endstream";
-            fajl += (char) 10;
-            fajl += "endobj";
-            fajl += (char) 10;
-            fajl += (char) 10;
+            iro.stream((int) Math.ceil((double) cellak_szama / 6) + 3, stream);
 
             //A cím alatti két üres cellában van helyünk a reklámozásra
-            Offszetek.add(fajl.length());
             stream = "BT";
             stream += (char) 10;
             stream += "/F1 12 Tf";
@@ -544,21 +561,7 @@ public class Export {
             stream += (char) 10;
             stream += "ET";
             stream += (char) 10;
-            fajl += Integer.toString((int) Math.ceil((double) cellak_szama / 6) + 4) + " 0 obj";
-            fajl += (char) 10;
-            fajl += "<< /Length " + Integer.toString(stream.length()) + " >>";
-            fajl += (char) 10;
-            fajl += "stream";
-            fajl += (char) 10;
-            fajl += stream;
-            fajl += "endstream";
-            fajl += (char) 10;
-            fajl += "endobj";
-            fajl += (char) 10;
-            fajl += (char) 10;
-            str.write(fajl.getBytes(Charset.forName("UTF-8")));
-            bajtszam += fajl.length();
-            fajl = "";
+            iro.stream((int) Math.ceil((double) cellak_szama / 6) + 4, stream);
 
             //Ez már élesben megy
             origami1.reset();
@@ -577,8 +580,9 @@ public class Export {
             //Ábrák
             for (int i = 0; i <= origami1.getHistory().size(); i++) {
 
+                report(progress, i, origami1.getHistory().size() + 1);
+
                 int x = 0, y = 0;
-                String kep;
 
                 if (ForgatasIndexek.contains(i)) {
 
@@ -620,30 +624,9 @@ public class Export {
 
                     kamera.adjust(origami1);
                     kamera.setZoom(figure_frame / Math.max(kamera.circumscribedSquareSize(origami1), 1.) * kamera.getZoom());
-                    kep = kamera.drawFaces(x, y, origami1) + kamera.drawEdges(x, y, origami1);
-
-                    Offszetek.add(bajtszam);
-                    stream = "q";
-                    stream += " ";
-                    stream += kep;
-                    stream += "Q";
-                    stream += (char) 10;
-                    fajl += Integer.toString(objindex) + " 0 obj";
-                    fajl += (char) 10;
-                    fajl += "<< /Length " + Integer.toString(stream.length()) + " >>";
-                    fajl += (char) 10;
-                    fajl += "stream";
-                    fajl += (char) 10;
-                    fajl += stream;
-                    fajl += "endstream";
-                    fajl += (char) 10;
-                    fajl += "endobj";
-                    fajl += (char) 10;
-                    fajl += (char) 10;
+                    abrak.add(figure(kamera, origami1, x, y, null));
+                    abra_indexek.add(objindex);
                     objindex++;
-                    str.write(fajl.getBytes(Charset.forName("UTF-8")));
-                    bajtszam += fajl.length();
-                    fajl = "";
                 }
 
                 if (!UresIndexek.contains(i) && i < origami1.getHistory().size()) {
@@ -714,83 +697,17 @@ public class Export {
                             break;
                     }
 
-                    double[] sikpont;
-                    double[] siknv;
-
                     kamera.adjust(origami1);
                     kamera.setZoom(figure_frame / Math.max(kamera.circumscribedSquareSize(origami1), 1.) * kamera.getZoom());
 
-                    switch (origami1.getHistory().get(i).foldID) {
-
-                        case Origami.FoldingAction.FOLD_REFLECTION:
-                            sikpont = origami1.getHistory().get(i).ppoint;
-                            siknv = origami1.getHistory().get(i).pnormal;
-                            kep = kamera.drawFaces(x, y, origami1) + kamera.drawEdges(x, y, origami1) + kamera.pfdLiner(x, y, sikpont, siknv);
-                            break;
-
-                        case Origami.FoldingAction.FOLD_ROTATION:
-                            sikpont = origami1.getHistory().get(i).ppoint;
-                            siknv = origami1.getHistory().get(i).pnormal;
-                            kep = kamera.drawFaces(x, y, origami1) + kamera.drawEdges(x, y, origami1) + kamera.pfdLiner(x, y, sikpont, siknv);
-                            break;
-
-                        case Origami.FoldingAction.FOLD_REFLECTION_P:
-                            sikpont = origami1.getHistory().get(i).ppoint;
-                            siknv = origami1.getHistory().get(i).pnormal;
-                            kep = kamera.drawSelection(x, y, sikpont, siknv, origami1.getHistory().get(i).polygonIndex, origami1) + kamera.drawEdges(x, y, origami1) + kamera.pfdLiner(x, y, sikpont, siknv);
-                            break;
-
-                        case Origami.FoldingAction.FOLD_ROTATION_P:
-                            sikpont = origami1.getHistory().get(i).ppoint;
-                            siknv = origami1.getHistory().get(i).pnormal;
-                            kep = kamera.drawSelection(x, y, sikpont, siknv, origami1.getHistory().get(i).polygonIndex, origami1) + kamera.drawEdges(x, y, origami1) + kamera.pfdLiner(x, y, sikpont, siknv);
-                            break;
-
-                        case Origami.FoldingAction.FOLD_CREASE:
-                            sikpont = origami1.getHistory().get(i).ppoint;
-                            siknv = origami1.getHistory().get(i).pnormal;
-                            kep = kamera.drawFaces(x, y, origami1) + kamera.drawEdges(x, y, origami1) + kamera.pfdLiner(x, y, sikpont, siknv);
-                            break;
-
-                        case Origami.FoldingAction.FOLD_MUTILATION:
-                            sikpont = origami1.getHistory().get(i).ppoint;
-                            siknv = origami1.getHistory().get(i).pnormal;
-                            kep = kamera.drawFaces(x, y, origami1) + kamera.drawEdges(x, y, origami1) + kamera.pfdLiner(x, y, sikpont, siknv);
-                            break;
-
-                        case Origami.FoldingAction.FOLD_MUTILATION_P:
-                            sikpont = origami1.getHistory().get(i).ppoint;
-                            siknv = origami1.getHistory().get(i).pnormal;
-                            kep = kamera.drawSelection(x, y, sikpont, siknv, (int) origami1.getHistory().get(i).polygonIndex, origami1) + kamera.drawEdges(x, y, origami1) + kamera.pfdLiner(x, y, sikpont, siknv);
-                            break;
-
-                        default:
-                            kep = kamera.drawFaces(x, y, origami1) + kamera.drawEdges(x, y, origami1);
-                            break;
-                    }
-
-                    Offszetek.add(bajtszam);
-                    stream = "q";
-                    stream += " ";
-                    stream += kep;
-                    stream += "Q";
-                    stream += (char) 10;
-                    fajl += Integer.toString(objindex) + " 0 obj";
-                    fajl += (char) 10;
-                    fajl += "<< /Length " + Integer.toString(stream.length()) + " >>";
-                    fajl += (char) 10;
-                    fajl += "stream";
-                    fajl += (char) 10;
-                    fajl += stream;
-                    fajl += "endstream";
-                    fajl += (char) 10;
-                    fajl += "endobj";
-                    fajl += (char) 10;
-                    fajl += (char) 10;
+                    abrak.add(figure(kamera, origami1, x, y, origami1.getHistory().get(i)));
+                    abra_indexek.add(objindex);
                     objindex++;
-                    str.write(fajl.getBytes(Charset.forName("UTF-8")));
-                    bajtszam += fajl.length();
-                    fajl = "";
+                }
+
+                //A kész ábrák kiírása sorrendben, hogy ne gyûljenek fel
+                while (abrak.size() > 2 * render_threads || (!abrak.isEmpty() && abrak.peek().isDone())) {
+                    iro.stream(abra_indexek.remove(), abrak.remove().get());
                 }
                 origami1.execute(i, 1);
                 if (i < origami1.getHistory().size()) {
@@ -811,6 +728,10 @@ public class Export {
                 }
             }
 
+            while (!abrak.isEmpty()) {
+                iro.stream(abra_indexek.remove(), abrak.remove().get());
+            }
+
             int dif = OrigamiGen1.difficultyLevel(origami1.difficulty());
             String difname = null;
             switch (dif) {
@@ -836,7 +757,6 @@ public class Export {
                     difname = Instructor.getString("level6");
                     break;
             }
-            Offszetek.add(bajtszam);
             stream = "BT";
             stream += (char) 10;
             stream += "/F1 12 Tf";
@@ -852,24 +772,9 @@ public class Export {
             stream += (char) 10;
             stream += "ET";
             stream += (char) 10;
-            fajl += Integer.toString(objindex) + " 0 obj";
-            fajl += (char) 10;
-            fajl += "<< /Length " + Integer.toString(stream.length()) + " >>";
-            fajl += (char) 10;
-            fajl += "stream";
-            fajl += (char) 10;
-            fajl += stream;
-            fajl += "endstream";
-            fajl += (char) 10;
-            fajl += "endobj";
-            fajl += (char) 10;
-            fajl += (char) 10;
+            iro.stream(objindex, stream);
             objindex++;
-            str.write(fajl.getBytes(Charset.forName("UTF-8")));
-            bajtszam += fajl.length();
-            fajl = "";
 
-            Offszetek.add(bajtszam);
             stream = "BT";
             stream += (char) 10;
             stream += "/F1 12 Tf";
@@ -883,22 +788,8 @@ public class Export {
             stream += (char) 10;
             stream += "ET";
             stream += (char) 10;
-            fajl += Integer.toString(objindex) + " 0 obj";
-            fajl += (char) 10;
-            fajl += "<< /Length " + Integer.toString(stream.length()) + " >>";
-            fajl += (char) 10;
-            fajl += "stream";
-            fajl += (char) 10;
-            fajl += stream;
-            fajl += "endstream";
-            fajl += (char) 10;
-            fajl += "endobj";
-            fajl += (char) 10;
-            fajl += (char) 10;
+            iro.stream(objindex, stream);
             objindex++;
-            str.write(fajl.getBytes(Charset.forName("UTF-8")));
-            bajtszam += fajl.length();
-            fajl = "";
 
             int sorszam = 1;
 
@@ -958,7 +849,6 @@ public class Export {
                             break;
                     }
 
-                    Offszetek.add(bajtszam);
                     stream = "BT";
                     stream += (char) 10;
                     stream += "/F1 10 Tf";
@@ -971,21 +861,7 @@ public class Export {
                     stream += (char) 10;
                     stream += "ET";
                     stream += (char) 10;
-                    fajl += Integer.toString(objindex + sorszam - 2) + " 0 obj";
-                    fajl += (char) 10;
-                    fajl += "<< /Length " + Integer.toString(stream.length()) + " >>";
-                    fajl += (char) 10;
-                    fajl += "stream";
-                    fajl += (char) 10;
-                    fajl += stream;
-                    fajl += "endstream";
-                    fajl += (char) 10;
-                    fajl += "endobj";
-                    fajl += (char) 10;
-                    fajl += (char) 10;
-                    str.write(fajl.getBytes(Charset.forName("UTF-8")));
-                    bajtszam += fajl.length();
-                    fajl = "";
+                    iro.stream(objindex + sorszam - 2, stream);
                 }
 
                 if (!UresIndexek.contains(i) && i < origami1.getHistory().size()) {
@@ -1317,7 +1193,6 @@ public class Export {
                             break;
                     }
 
-                    Offszetek.add(bajtszam);
                     stream = "BT";
                     stream += (char) 10;
                     stream += "/F1 10 Tf";
@@ -1330,122 +1205,92 @@ public class Export {
                     stream += (char) 10;
                     stream += "ET";
                     stream += (char) 10;
-                    fajl += Integer.toString(objindex + sorszam - 2) + " 0 obj";
-                    fajl += (char) 10;
-                    fajl += "<< /Length " + Integer.toString(stream.length()) + " >>";
-                    fajl += (char) 10;
-                    fajl += "stream";
-                    fajl += (char) 10;
-                    fajl += stream;
-                    fajl += "endstream";
-                    fajl += (char) 10;
-                    fajl += "endobj";
-                    fajl += (char) 10;
-                    fajl += (char) 10;
-                    str.write(fajl.getBytes(Charset.forName("UTF-8")));
-                    bajtszam += fajl.length();
-                    fajl = "";
+                    iro.stream(objindex + sorszam - 2, stream);
                 }
             }
 
-            int xroffszet = bajtszam;
-
-            fajl += "xref";
-            fajl += (char) 10;
-            fajl += "0 " + Integer.toString(Offszetek.size());
-            fajl += (char) 10;
-            fajl += "0000000000 65535 f ";
-            fajl += (char) 10;
-
-            for (int i = 1; i < Offszetek.size(); i++) {
-
-                for (int ii = 0; ii < 10 - Integer.toString(Offszetek.get(i)).length(); ii++) {
-                    fajl += "0";
-                }
-                fajl += Integer.toString(Offszetek.get(i));
-                fajl += " 00000 n ";
-                fajl += (char) 10;
-            }
-
-            fajl += "trailer";
-            fajl += (char) 10;
-            fajl += "<< /Root 1 0 R";
-            fajl += (char) 10;
-            fajl += "/Size " + Integer.toString(Offszetek.size());
-            fajl += (char) 10;
-            fajl += ">>";
-            fajl += (char) 10;
-            fajl += "startxref";
-            fajl += (char) 10;
-            fajl += Integer.toString(xroffszet);
-            fajl += (char) 10;
-            fajl += "%%EOF";
-
-            str.write(fajl.getBytes(Charset.forName("UTF-8")));
+            iro.finish(1);
             System.out.println(str.getChannel().position() + " bytes written to " + filename);
-            str.close();
+            report(progress, origami1.getHistory().size() + 1, origami1.getHistory().size() + 1);
 
+        } catch (InterruptedException ex) {
+            throw ex;
         } catch (Exception exc) {
             throw OrigamiException.H005;
+        } finally {
+            for (Future<PDFWriter.Content> abra : abrak) {
+                abra.cancel(true);
+            }
         }
     }
 
+    /**
+     * Draws a figure of a PDF diagram on one of the {@link #renderers}. The
+     * figure is drawn from copies of the camera and of the current state of the
+     * origami, so both can be changed as soon as this method returns.
+     *
+     * @param lepes The step shown in the figure, or {@code null} if the figure
+     * only shows the origami from a new angle.
+     * @return The content stream of the figure, compressed.
+     */
+    static private Future<PDFWriter.Content> figure(Camera kamera, Origami origami, final int x, final int y,
+            final Origami.FoldingAction lepes) {
+
+        final Camera abrakamera = new Camera(kamera);
+        final Origami allapot = origami.snapshot();
+        return renderers.submit(new Callable<PDFWriter.Content>() {
+            @Override
+            public PDFWriter.Content call() throws IOException {
+
+                PDFWriter.Content kep = new PDFWriter.Content();
+                kep.write("q ");
+                switch (lepes == null ? 0 : lepes.foldID) {
+
+                    case Origami.FoldingAction.FOLD_REFLECTION:
+                    case Origami.FoldingAction.FOLD_ROTATION:
+                    case Origami.FoldingAction.FOLD_CREASE:
+                    case Origami.FoldingAction.FOLD_MUTILATION:
+                        abrakamera.drawFaces(kep, x, y, allapot);
+                        abrakamera.drawEdges(kep, x, y, allapot);
+                        abrakamera.pfdLiner(kep, x, y, lepes.ppoint, lepes.pnormal);
+                        break;
+
+                    case Origami.FoldingAction.FOLD_REFLECTION_P:
+                    case Origami.FoldingAction.FOLD_ROTATION_P:
+                    case Origami.FoldingAction.FOLD_MUTILATION_P:
+                        abrakamera.drawSelection(kep, x, y, lepes.ppoint, lepes.pnormal, lepes.polygonIndex, allapot);
+                        abrakamera.drawEdges(kep, x, y, allapot);
+                        abrakamera.pfdLiner(kep, x, y, lepes.ppoint, lepes.pnormal);
+                        break;
+
+                    default:
+                        abrakamera.drawFaces(kep, x, y, allapot);
+                        abrakamera.drawEdges(kep, x, y, allapot);
+                        break;
+                }
+                kep.write("Q\n");
+                kep.close();
+                return kep;
+            }
+        });
+    }
+
     static public void exportGIF(Origami origami, Camera refcam, int color, int width, int height, String filename) throws Exception {
+        exportGIF(origami, refcam, color, width, height, filename, null);
+    }
 
-        try (FileOutputStream fos = new FileOutputStream(filename)) {
+    static public void exportGIF(Origami origami, Camera refcam, int color, int width, int height, String filename,
+            Progress progress) throws Exception {
 
-            fos.write('G');
-            fos.write('I');
-            fos.write('F');
-            fos.write('8');
-            fos.write('9');
-            fos.write('a');
-
-            fos.write((byte) width);
-            fos.write((byte) (width >>> 8));
-            fos.write((byte) height);
-            fos.write((byte) (height >>> 8));
-            fos.write(0b10010110);
-            fos.write(0);
-            fos.write(0);
-
-            for (int r = 1; r <= 5; r++) {
-                for (int g = 1; g <= 5; g++) {
-                    for (int b = 1; b <= 5; b++) {
-
-                        fos.write(r * 51);
-                        fos.write(g * 51);
-                        fos.write(b * 51);
-                    }
-                }
-            }
-            for (int i = 0; i < 9; i++) {
-                fos.write(0);
-            }
+        try (FileOutputStream fos = new FileOutputStream(filename)) {
 
-            fos.write(0x21);
-            fos.write(0xFF);
-            fos.write(0x0B);
-            fos.write('N');
-            fos.write('E');
-            fos.write('T');
-            fos.write('S');
-            fos.write('C');
-            fos.write('A');
-            fos.write('P');
-            fos.write('E');
-            fos.write('2');
-            fos.write('.');
-            fos.write('0');
-            fos.write(0x03);
-            fos.write(0x01);
-            fos.write(0x00);
-            fos.write(0x00);
-            fos.write(0x00);
+            BufferedOutputStream out = new BufferedOutputStream(fos);
+            GIFEncoder gif = new GIFEncoder(out, width, height);
 
             BufferedImage img = new BufferedImage(width, height, java.awt.image.BufferedImage.TYPE_INT_RGB);
             Graphics2D gimg = img.createGraphics();
             gimg.setBackground(java.awt.Color.WHITE);
+            int[] pixels = ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
             Origami origami1 = origami.copy();
             Camera cam = new Camera(width / 2, height / 2, 1);
             cam.setCamDirection(refcam.getCamDirection().clone());
@@ -1454,69 +1299,28 @@ public class Export {
             cam.setZoom(0.8 * Math.min(width, height) / origami1.circumscribedSquareSize());
             int steps = origami1.getHistoryPointer();
             origami1.undo(steps);
-            boolean last = false;
-            while (origami1.getHistoryPointer() < steps || (last = !last && origami1.getHistoryPointer() == steps)) {
+            // A single forward replay: each redo() applies the next step (with the creases
+            // before it) on top of the previous frame, so the whole export is linear in the
+            // length of the history. Nothing past the current step is executed.
+            while (origami1.getHistoryPointer() <= steps) {
+
+                report(progress, origami1.getHistoryPointer(), steps + 1);
 
                 gimg.clearRect(0, 0, width, height);
                 cam.adjust(origami1);
                 cam.drawFaces(gimg, color, origami1);
                 cam.drawEdges(gimg, java.awt.Color.black, origami1);
-                origami1.redo();
-                fos.write(0x21);
-                fos.write(0xF9);
-                fos.write(0x04);
-                fos.write(0x04);
-                fos.write(0x64); //delay time
-                fos.write(0x00);
-                fos.write(0x00);
-                fos.write(0x00);
-
-                fos.write(0x2C);
-                fos.write(0x00);
-                fos.write(0x00);
-                fos.write(0x00);
-                fos.write(0x00);
-                fos.write((byte) width);
-                fos.write((byte) (width >>> 8));
-                fos.write((byte) height);
-                fos.write((byte) (height >>> 8));
-                fos.write(0x00);
-
-                fos.write(0x07);
-
-                for (int y = 0; y < height; y++) {
-
-                    fos.write(width / 2 + 1);
-                    fos.write(0x80);
-                    for (int x = 0; x < width / 2; x++) {
-
-                        int rgb = img.getRGB(x, y) & 0xFFFFFF;
-                        int b = rgb % 0x100;
-                        int g = (rgb >>> 8) % 0x100;
-                        int r = rgb >>> 16;
-
-                        fos.write((((r * 5) / 256) * 25 + ((g * 5) / 256) * 5 + (b * 5) / 256));
-                    }
-                    fos.write(width - width / 2 + 1);
-                    fos.write(0x80);
-                    for (int x = width / 2; x < width; x++) {
-
-                        int rgb = img.getRGB(x, y) & 0xFFFFFF;
-                        int b = rgb % 0x100;
-                        int g = (rgb >>> 8) % 0x100;
-                        int r = rgb >>> 16;
-
-                        fos.write((((r * 5) / 256) * 25 + ((g * 5) / 256) * 5 + (b * 5) / 256));
-                    }
+                gif.addFrame(pixels, 100);
+                if (origami1.getHistoryPointer() == steps) {
+                    break;
                 }
-                fos.write(0x01);
-                fos.write(0x81);
-                fos.write(0);
+                origami1.redo();
             }
 
-            fos.write(0x3B);
+            gif.finish();
             System.out.println(fos.getChannel().position() + " bytes written to " + filename);
             fos.close();
+            report(progress, steps + 1, steps + 1);
 
         } catch (IOException ex) {
             throw OrigamiException.H005;
@@ -1524,131 +1328,78 @@ public class Export {
     }
 
     static public void exportRevolvingGIF(Origami origami, Camera refcam, int color, int width, int height, String filename) throws Exception {
+        exportRevolvingGIF(origami, refcam, color, width, height, filename, null);
+    }
 
-        try (FileOutputStream fos = new FileOutputStream(filename)) {
+    static public void exportRevolvingGIF(Origami origami, Camera refcam, final int color, final int width,
+            final int height, String filename, Progress progress) throws Exception {
 
-            fos.write('G');
-            fos.write('I');
-            fos.write('F');
-            fos.write('8');
-            fos.write('9');
-            fos.write('a');
-
-            fos.write((byte) width);
-            fos.write((byte) (width >>> 8));
-            fos.write((byte) height);
-            fos.write((byte) (height >>> 8));
-            fos.write(0b10010110);
-            fos.write(0);
-            fos.write(0);
-
-            for (int r = 1; r <= 5; r++) {
-                for (int g = 1; g <= 5; g++) {
-                    for (int b = 1; b <= 5; b++) {
-
-                        fos.write(r * 51);
-                        fos.write(g * 51);
-                        fos.write(b * 51);
-                    }
-                }
-            }
-            for (int i = 0; i < 9; i++) {
-                fos.write(0);
-            }
+        try (FileOutputStream fos = new FileOutputStream(filename)) {
 
-            fos.write(0x21);
-            fos.write(0xFF);
-            fos.write(0x0B);
-            fos.write('N');
-            fos.write('E');
-            fos.write('T');
-            fos.write('S');
-            fos.write('C');
-            fos.write('A');
-            fos.write('P');
-            fos.write('E');
-            fos.write('2');
-            fos.write('.');
-            fos.write('0');
-            fos.write(0x03);
-            fos.write(0x01);
-            fos.write(0x00);
-            fos.write(0x00);
-            fos.write(0x00);
+            BufferedOutputStream out = new BufferedOutputStream(fos);
+            GIFEncoder gif = new GIFEncoder(out, width, height);
 
-            BufferedImage img = new BufferedImage(width, height, java.awt.image.BufferedImage.TYPE_INT_RGB);
-            Graphics2D gimg = img.createGraphics();
-            gimg.setBackground(java.awt.Color.WHITE);
-            Origami origami1 = origami.copy();
+            final Origami origami1 = origami.copy();
             Camera cam = new Camera(width / 2, height / 2, 1);
             cam.setCamDirection(refcam.getCamDirection().clone());
             cam.setXAxis(refcam.getXAxis().clone());
             cam.setYAxis(refcam.getYAxis().clone());
             cam.setZoom(0.8 * Math.min(width, height) / origami1.circumscribedSquareSize());
             cam.adjust(origami1);
-
-            for (int i = 0; i < 72; i++) {
-
-                gimg.clearRect(0, 0, width, height);
-                cam.drawGradient(gimg, color, origami1);
-                cam.drawEdges(gimg, java.awt.Color.black, origami1);
-                cam.rotate(10, 0);
-
-                fos.write(0x21);
-                fos.write(0xF9);
-                fos.write(0x04);
-                fos.write(0x04);
-                fos.write(0x05); //delay time
-                fos.write(0x00);
-                fos.write(0x00);
-                fos.write(0x00);
-
-                fos.write(0x2C);
-                fos.write(0x00);
-                fos.write(0x00);
-                fos.write(0x00);
-                fos.write(0x00);
-                fos.write((byte) width);
-                fos.write((byte) (width >>> 8));
-                fos.write((byte) height);
-                fos.write((byte) (height >>> 8));
-                fos.write(0x00);
-
-                fos.write(0x07);
-
-                for (int y = 0; y < height; y++) {
-
-                    fos.write(width / 2 + 1);
-                    fos.write(0x80);
-                    for (int x = 0; x < width / 2; x++) {
-
-                        int rgb = img.getRGB(x, y) & 0xFFFFFF;
-                        int b = rgb % 0x100;
-                        int g = (rgb >>> 8) % 0x100;
-                        int r = rgb >>> 16;
-
-                        fos.write((((r * 5) / 256) * 25 + ((g * 5) / 256) * 5 + (b * 5) / 256));
+            // The edges are collected lazily, which must not happen on several threads at once
+            origami1.getEdges();
+
+            // Every frame is rendered and quantized on its own thread, with its own copy of
+            // the camera, while the frames that are done are encoded in order on this one.
+            // The images are reused, so there are never more of them than frames being rendered.
+            final ConcurrentLinkedQueue<BufferedImage> images = new ConcurrentLinkedQueue<>();
+            ArrayDeque<Future<byte[]>> frames = new ArrayDeque<>();
+            int submitted = 0;
+            try {
+                for (int i = 0; i < 72; i++) {
+
+                    while (submitted < 72 && frames.size() < 2 * render_threads) {
+
+                        final Camera framecam = new Camera(cam);
+                        cam.rotate(10, 0);
+                        frames.add(renderers.submit(new Callable<byte[]>() {
+                            @Override
+                            public byte[] call() {
+
+                                BufferedImage img = images.poll();
+                                if (img == null) {
+                                    img = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+                                }
+                                Graphics2D gimg = img.createGraphics();
+                                gimg.setBackground(java.awt.Color.WHITE);
+                                gimg.clearRect(0, 0, width, height);
+                                framecam.drawGradient(gimg, color, origami1);
+                                framecam.drawEdges(gimg, java.awt.Color.black, origami1);
+                                gimg.dispose();
+                                byte[] frame = GIFEncoder.quantize(
+                                        ((DataBufferInt) img.getRaster().getDataBuffer()).getData(), null);
+                                images.add(img);
+                                return frame;
+                            }
+                        }));
+                        submitted++;
                     }
-                    fos.write(width - width / 2 + 1);
-                    fos.write(0x80);
-                    for (int x = width / 2; x < width; x++) {
-
-                        int rgb = img.getRGB(x, y) & 0xFFFFFF;
-                        int b = rgb % 0x100;
-                        int g = (rgb >>> 8) % 0x100;
-                        int r = rgb >>> 16;
 
-                        fos.write((((r * 5) / 256) * 25 + ((g * 5) / 256) * 5 + (b * 5) / 256));
-                    }
+                    report(progress, i, 72);
+                    gif.addFrame(frames.remove().get(), 5);
+                }
+            } catch (ExecutionException ex) {
+                throw ex.getCause() instanceof Exception ? (Exception) ex.getCause() : ex;
+            } finally {
+                for (Future<byte[]> frame : frames) {
+                    frame.cancel(true);
                 }
-                fos.write(0x01);
-                fos.write(0x81);
-                fos.write(0);
             }
 
-            fos.write(0x3B);
+            gif.finish();
             System.out.println(fos.getChannel().position() + " bytes written to " + filename);
             fos.close();
+            report(progress, 72, 72);
 
         } catch (IOException ex) {
             throw OrigamiException.H005;
@@ -1656,9 +1407,15 @@ public class Export {
     }
 
     static public void exportPNG(Origami origami, String filename) throws Exception {
+        exportPNG(origami, filename, null);
+    }
+
+    static public void exportPNG(Origami origami, String filename, Progress progress) throws Exception {
 
         try {
 
+            report(progress, 0, 1);
+
             File png = new File(filename);
             if (png.exists()) {
                 png.delete();
@@ -1672,15 +1429,24 @@ public class Export {
             if (!ImageIO.write(img, "png", png)) {
                 throw OrigamiException.H005;
             }
+            report(progress, 1, 1);
+        } catch (InterruptedException ex) {
+            throw ex;
         } catch (Exception ex) {
             throw OrigamiException.H005;
         }
     }
 
     static public void exportJAR(Origami origami, String filename, int[] rgb) throws Exception {
+        exportJAR(origami, filename, rgb, null);
+    }
+
+    static public void exportJAR(Origami origami, String filename, int[] rgb, Progress progress) throws Exception {
 
         try {
 
+            report(progress, 0, 1);
+
             File finalJar = new File(filename);
             if (finalJar.exists()) {
                 finalJar.delete();
@@ -1750,7 +1516,10 @@ public class Export {
             tempOri.delete();
             tempJar.delete();
             System.out.println("done");
+            report(progress, 1, 1);
 
+        } catch (InterruptedException ex) {
+            throw ex;
         } catch (Exception ex) {
             throw OrigamiException.H005;
         }
@@ -0,0 +1,247 @@
+package origamieditor3d.io;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs exports in the background on a bounded pool of worker threads, so that
+ * several exports can be made at the same time without blocking the editor.
+ * Each export is given everything it needs up front, typically a
+ * {@link origamieditor3d.origami.Origami#snapshot() snapshot} of the origami,
+ * so it does not depend on what happens to the model in the meantime. <br>
+ * The progress of every job is reported to a {@link Listener}, and each job can
+ * be cancelled separately.
+ *
+ * @since 2026-10-19
+ */
+public class ExportQueue {
+
+    final static public int default_threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() - 1, 3));
+
+    /**
+     * The export to be done by a {@link Job}.
+     */
+    public interface Task {
+
+        void run(Export.Progress progress) throws Exception;
+    }
+
+    /**
+     * Receives the state of the jobs as it changes. Called from the worker
+     * threads.
+     */
+    public interface Listener {
+
+        void jobChanged(Job job);
+    }
+
+    public enum State {
+        QUEUED, RUNNING, FINISHED, FAILED, CANCELLED
+    }
+
+    /**
+     * A single export in the queue.
+     */
+    public class Job {
+
+        private final String name;
+        private final String filename;
+        private final Task task;
+        private volatile State state;
+        private volatile int done, total;
+        private volatile Exception error;
+        private Future<?> future;
+
+        private Job(String name, String filename, Task task) {
+
+            this.name = name;
+            this.filename = filename;
+            this.task = task;
+            state = State.QUEUED;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getFilename() {
+            return filename;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        /**
+         * Returns the number of units (pages, frames) exported so far.
+         */
+        public int getDone() {
+            return done;
+        }
+
+        /**
+         * Returns the number of units in the whole export, or 0 if it is not
+         * known yet.
+         */
+        public int getTotal() {
+            return total;
+        }
+
+        /**
+         * Returns the exception the export failed with, or {@code null}. For a
+         * cancelled export, returns the reason its incomplete file could not
+         * be deleted, if any.
+         */
+        public Exception getError() {
+            return error;
+        }
+
+        public boolean isOver() {
+            return state == State.FINISHED || state == State.FAILED || state == State.CANCELLED;
+        }
+
+        /**
+         * Stops the export. If it has already started writing, the incomplete
+         * file is deleted.
+         */
+        public void cancel() {
+
+            synchronized (ExportQueue.this) {
+
+                if (isOver()) {
+                    return;
+                }
+                if (state == State.QUEUED) {
+
+                    future.cancel(false);
+                    finish(State.CANCELLED, null, false);
+                    return;
+                }
+                state = State.CANCELLED;
+                future.cancel(true);
+            }
+        }
+
+        private void run() {
+
+            synchronized (ExportQueue.this) {
+
+                if (state != State.QUEUED) {
+                    return;
+                }
+                state = State.RUNNING;
+            }
+            listener.jobChanged(this);
+            try {
+                task.run(new Export.Progress() {
+                    @Override
+                    public void update(int done, int total) throws InterruptedException {
+
+                        if (state == State.CANCELLED || Thread.currentThread().isInterrupted()) {
+                            throw new InterruptedException();
+                        }
+                        Job.this.done = done;
+                        Job.this.total = total;
+                        listener.jobChanged(Job.this);
+                    }
+                });
+                finish(state == State.CANCELLED ? State.CANCELLED : State.FINISHED, null, true);
+            }
+            catch (Exception ex) {
+                finish(state == State.CANCELLED ? State.CANCELLED : State.FAILED, ex, true);
+            }
+            // Clear the interrupt flag so that it does not hit the next job
+            Thread.interrupted();
+        }
+
+        private void finish(State state, Exception error, boolean started) {
+
+            if (state == State.CANCELLED && started && filename != null) {
+                try {
+                    Files.deleteIfExists(Paths.get(filename));
+                }
+                catch (IOException ex) {
+                    error = ex;
+                }
+            }
+            synchronized (ExportQueue.this) {
+
+                this.state = state;
+                this.error = error;
+                jobs.remove(this);
+            }
+            listener.jobChanged(this);
+        }
+    }
+
+    private final ExecutorService workers;
+    private final Listener listener;
+    private final List<Job> jobs;
+
+    public ExportQueue(Listener listener) {
+        this(default_threads, listener);
+    }
+
+    /**
+     * @param threads The maximum number of exports to run at the same time.
+     * @param listener Receives the state of the jobs.
+     */
+    public ExportQueue(int threads, Listener listener) {
+
+        this.listener = listener;
+        jobs = new ArrayList<>();
+        workers = Executors.newFixedThreadPool(Math.max(threads, 1), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+
+                Thread thread = new Thread(r, "Export worker");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Adds an export to the queue.
+     *
+     * @param name A short description of the export, e. g. {@code "PDF"}.
+     * @param filename The file the export writes, which is deleted if the
+     * export is cancelled. May be {@code null}.
+     * @param task The export itself.
+     * @return The job representing the export.
+     */
+    public synchronized Job submit(String name, String filename, Task task) {
+
+        final Job job = new Job(name, filename, task);
+        jobs.add(job);
+        job.future = workers.submit(new Runnable() {
+            @Override
+            public void run() {
+                job.run();
+            }
+        });
+        listener.jobChanged(job);
+        return job;
+    }
+
+    /**
+     * Returns the jobs that are queued or running.
+     */
+    public synchronized List<Job> getJobs() {
+        return new ArrayList<>(jobs);
+    }
+
+    public void cancelAll() {
+
+        for (Job job : getJobs()) {
+            job.cancel();
+        }
+    }
+}
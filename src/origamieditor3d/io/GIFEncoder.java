@@ -0,0 +1,300 @@
+package origamieditor3d.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Writes an animated GIF with the 125-color palette of the GIF exports, one
+ * frame at a time. The frames are LZW-compressed as the GIF format intends.
+ * Each frame after the first one is cropped to the rectangle in which it
+ * differs from the previous frame, and the unchanged pixels inside that
+ * rectangle are made transparent, so that they compress to almost nothing.
+ *
+ * @since 2026-10-19
+ */
+public class GIFEncoder {
+
+    /**
+     * The palette index that is never produced by {@link #quantize(int[], byte[])},
+     * used for transparent pixels.
+     */
+    final static private int transparent = 127;
+    final static private int min_code_size = 7;
+    final static private int max_codes = 4096;
+
+    /**
+     * Maps a color component to one of 5 levels.
+     */
+    final static private int[] levels = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            levels[i] = i * 5 / 256;
+        }
+    }
+
+    private final OutputStream out;
+    private final int width, height;
+    private byte[] previous;
+    private byte[] current;
+
+    // LZW state
+    private final int[] keys, codes;
+    private final byte[] block;
+    private int block_size;
+    private int bits, bit_count;
+
+    /**
+     * Writes the header of the GIF.
+     *
+     * @param out The stream to write to. Should be buffered.
+     * @param width The width of the frames in pixels.
+     * @param height The height of the frames in pixels.
+     */
+    public GIFEncoder(OutputStream out, int width, int height) throws IOException {
+
+        this.out = out;
+        this.width = width;
+        this.height = height;
+        keys = new int[8192];
+        codes = new int[8192];
+        block = new byte[255];
+
+        out.write(new byte[] { 'G', 'I', 'F', '8', '9', 'a' });
+        writeShort(width);
+        writeShort(height);
+        out.write(0b10010110);
+        out.write(0);
+        out.write(0);
+
+        for (int r = 1; r <= 5; r++) {
+            for (int g = 1; g <= 5; g++) {
+                for (int b = 1; b <= 5; b++) {
+
+                    out.write(r * 51);
+                    out.write(g * 51);
+                    out.write(b * 51);
+                }
+            }
+        }
+        out.write(new byte[9]);
+
+        // Loop forever
+        out.write(new byte[] { 0x21, (byte) 0xFF, 0x0B, 'N', 'E', 'T', 'S', 'C', 'A', 'P', 'E', '2', '.', '0', 0x03,
+            0x01, 0x00, 0x00, 0x00 });
+    }
+
+    /**
+     * Converts RGB pixels to indices of the palette.
+     *
+     * @param rgb The pixels, e. g. the data buffer of a
+     * {@link java.awt.image.BufferedImage#TYPE_INT_RGB TYPE_INT_RGB} image.
+     * @param indices The array to write to, or {@code null} to allocate one.
+     * @return The palette indices.
+     */
+    static public byte[] quantize(int[] rgb, byte[] indices) {
+
+        if (indices == null || indices.length < rgb.length) {
+            indices = new byte[rgb.length];
+        }
+        for (int i = 0; i < rgb.length; i++) {
+
+            int c = rgb[i];
+            indices[i] = (byte) (levels[(c >>> 16) & 0xFF] * 25 + levels[(c >>> 8) & 0xFF] * 5 + levels[c & 0xFF]);
+        }
+        return indices;
+    }
+
+    /**
+     * Adds a frame given by its RGB pixels, row by row.
+     *
+     * @param delay The time to show the frame for, in hundredths of a second.
+     */
+    public void addFrame(int[] rgb, int delay) throws IOException {
+
+        current = quantize(rgb, current);
+        addFrame(current, delay);
+    }
+
+    /**
+     * Adds a frame given by its {@link #quantize(int[], byte[]) palette indices},
+     * row by row.
+     *
+     * @param delay The time to show the frame for, in hundredths of a second.
+     */
+    public void addFrame(byte[] indices, int delay) throws IOException {
+
+        int left = 0, top = 0, right = width, bottom = height;
+        if (previous != null) {
+
+            left = width;
+            top = height;
+            right = bottom = 0;
+            for (int y = 0; y < height; y++) {
+
+                int row = y * width;
+                int x0 = 0;
+                while (x0 < width && indices[row + x0] == previous[row + x0]) {
+                    x0++;
+                }
+                if (x0 == width) {
+                    continue;
+                }
+                int x1 = width;
+                while (indices[row + x1 - 1] == previous[row + x1 - 1]) {
+                    x1--;
+                }
+                left = Math.min(left, x0);
+                right = Math.max(right, x1);
+                top = Math.min(top, y);
+                bottom = y + 1;
+            }
+            if (right == 0) {
+
+                // Nothing has changed, but the frame still has to be shown
+                left = top = 0;
+                right = bottom = 1;
+            }
+        }
+
+        int w = right - left;
+        int h = bottom - top;
+        byte[] pixels = new byte[w * h];
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+
+                int i = (top + y) * width + left + x;
+                pixels[y * w + x] = previous != null && indices[i] == previous[i] ? (byte) transparent : indices[i];
+            }
+        }
+
+        out.write(0x21);
+        out.write(0xF9);
+        out.write(0x04);
+        out.write(previous == null ? 0x04 : 0x05);
+        writeShort(delay);
+        out.write(transparent);
+        out.write(0x00);
+
+        out.write(0x2C);
+        writeShort(left);
+        writeShort(top);
+        writeShort(w);
+        writeShort(h);
+        out.write(0x00);
+
+        compress(pixels);
+
+        if (previous == null) {
+            previous = new byte[width * height];
+        }
+        System.arraycopy(indices, 0, previous, 0, width * height);
+    }
+
+    /**
+     * Writes the end of the GIF and flushes the stream. The stream is not
+     * closed.
+     */
+    public void finish() throws IOException {
+
+        out.write(0x3B);
+        out.flush();
+    }
+
+    private void writeShort(int value) throws IOException {
+
+        out.write(value & 0xFF);
+        out.write((value >>> 8) & 0xFF);
+    }
+
+    private void compress(byte[] pixels) throws IOException {
+
+        int clear = 1 << min_code_size;
+        int end = clear + 1;
+        out.write(min_code_size);
+        block_size = 0;
+        bits = bit_count = 0;
+
+        Arrays.fill(keys, -1);
+        int code_size = min_code_size + 1;
+        int next = end + 1;
+        writeCode(clear, code_size);
+
+        int prefix = pixels[0] & 0xFF;
+        for (int i = 1; i < pixels.length; i++) {
+
+            int pixel = pixels[i] & 0xFF;
+            int key = (prefix << 8) | pixel;
+            int slot = find(key);
+            if (keys[slot] == key) {
+                prefix = codes[slot];
+                continue;
+            }
+            writeCode(prefix, code_size);
+            if (next < max_codes) {
+
+                if (next == 1 << code_size) {
+                    code_size++;
+                }
+                keys[slot] = key;
+                codes[slot] = next++;
+            } else {
+
+                writeCode(clear, code_size);
+                Arrays.fill(keys, -1);
+                code_size = min_code_size + 1;
+                next = end + 1;
+            }
+            prefix = pixel;
+        }
+        writeCode(prefix, code_size);
+        if (next == 1 << code_size && code_size < 12) {
+            code_size++;
+        }
+        writeCode(end, code_size);
+
+        if (bit_count > 0) {
+            writeByte(bits);
+        }
+        if (block_size > 0) {
+
+            out.write(block_size);
+            out.write(block, 0, block_size);
+        }
+        out.write(0);
+    }
+
+    private int find(int key) {
+
+        int mask = keys.length - 1;
+        int slot = (key * 0x9E3779B1 >>> 19) & mask;
+        while (keys[slot] != -1 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void writeCode(int code, int code_size) throws IOException {
+
+        bits |= code << bit_count;
+        bit_count += code_size;
+        while (bit_count >= 8) {
+
+            writeByte(bits);
+            bits >>>= 8;
+            bit_count -= 8;
+        }
+    }
+
+    private void writeByte(int b) throws IOException {
+
+        block[block_size++] = (byte) b;
+        if (block_size == 255) {
+
+            out.write(255);
+            out.write(block);
+            block_size = 0;
+        }
+    }
+}
@@ -1,14 +1,24 @@
 package origamieditor3d.io;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.io.OutputStream;
+import java.util.Arrays;
 
 /**
+ * LZW compression as used by the ORI format. The dictionary grows without
+ * limit, and every code is written with the same number of bits, which is
+ * only known once the whole input has been read. Codes are packed MSB first
+ * in groups of eight, the last group padded with zero codes, and followed by
+ * two bytes: the number of real codes in the last group (0 if it is full) and
+ * the code width.
  *
  * @author Attila Bágyoni (ba-sz-at@users.sourceforge.net)
  */
@@ -16,130 +26,210 @@ public class LZW {
 
     static public void compress(File input, File output) throws Exception {
 
-        FileInputStream fis = new FileInputStream(input);
-        FileOutputStream fos = new FileOutputStream(output);
-        HashMap<String, Integer> szotar = new HashMap<>();
-        ArrayList<Integer> normalatlan = new ArrayList<>();
-        for (int i = 0; i < 256; i++) {
-            szotar.put((char) i + "", i);
+        try (InputStream fis = new BufferedInputStream(new FileInputStream(input));
+                OutputStream fos = new BufferedOutputStream(new FileOutputStream(output))) {
+            compress(fis, fos);
         }
-        String szo = "";
+    }
+
+    /**
+     * Compresses everything read from {@code input} into {@code output}. Neither
+     * stream is closed.
+     */
+    static public void compress(InputStream input, OutputStream output) throws IOException {
+
+        // The dictionary is a trie stored in a hash table; the entry with
+        // prefix code p and last byte b is under the key p * 256 + b
+        int szotar_meret = 256;
+        long[] kulcsok = new long[1 << 12];
+        int[] kodok = new int[1 << 12];
+        Arrays.fill(kulcsok, -1);
+
+        int[] normalatlan = new int[1 << 10];
+        int kodszam = 0;
+
+        int szo = -1;
         int b;
-        while ((b = fis.read()) != -1) {
+        while ((b = input.read()) != -1) {
 
-            String szo1 = szo + (char) b;
-            if (szotar.containsKey(szo1)) {
-                szo = szo1;
+            if (szo == -1) {
+                szo = b;
+                continue;
+            }
+            long kulcs = ((long) szo << 8) | b;
+            int hely = find(kulcsok, kulcs);
+            if (kulcsok[hely] == kulcs) {
+                szo = kodok[hely];
             } else {
 
-                normalatlan.add(szotar.get(szo));
-                szotar.put(szo1, szotar.size());
-                szo = (char) b + "";
-            }
-        }
-        fis.close();
-        if (!"".equals(szo)) {
-            normalatlan.add(szotar.get(szo));
-        }
-        int magn2 = (int) Math.ceil(Math.log(szotar.size()) / Math.log(2));
-        int szakadas = -1;
-        for (int i = 0; i < normalatlan.size(); i += 8) {
-
-            String normalt = "";
-            for (int ii = i; ii < i + 8; ii++) {
-
-                if (ii < normalatlan.size()) {
-                    normalt += BinToString(normalatlan.get(ii), magn2);
-                } else {
-                    normalt += BinToString(0, magn2);
-                    if (szakadas == -1) {
-                        szakadas = ii - i;
+                if (kodszam == normalatlan.length) {
+                    normalatlan = Arrays.copyOf(normalatlan, kodszam * 2);
+                }
+                normalatlan[kodszam++] = szo;
+                kulcsok[hely] = kulcs;
+                kodok[hely] = szotar_meret++;
+                if ((szotar_meret - 256) * 2 > kulcsok.length) {
+
+                    long[] regi_kulcsok = kulcsok;
+                    int[] regi_kodok = kodok;
+                    kulcsok = new long[regi_kulcsok.length * 2];
+                    kodok = new int[regi_kodok.length * 2];
+                    Arrays.fill(kulcsok, -1);
+                    for (int i = 0; i < regi_kulcsok.length; i++) {
+                        if (regi_kulcsok[i] != -1) {
+
+                            int uj = find(kulcsok, regi_kulcsok[i]);
+                            kulcsok[uj] = regi_kulcsok[i];
+                            kodok[uj] = regi_kodok[i];
+                        }
                     }
                 }
+                szo = b;
+            }
+        }
+        if (szo != -1) {
+
+            if (kodszam == normalatlan.length) {
+                normalatlan = Arrays.copyOf(normalatlan, kodszam + 1);
             }
-            for (int ii = 0; ii < normalt.length(); ii += 8) {
-                fos.write(StringToBin(normalt.substring(ii, ii + 8)));
+            normalatlan[kodszam++] = szo;
+        }
+
+        int magn2 = (int) Math.ceil(Math.log(szotar_meret) / Math.log(2));
+        long bitek = 0;
+        int bitszam = 0;
+        int kodszam_kerek = (kodszam + 7) / 8 * 8;
+        for (int i = 0; i < kodszam_kerek; i++) {
+
+            bitek = (bitek << magn2) | (i < kodszam ? normalatlan[i] : 0);
+            bitszam += magn2;
+            while (bitszam >= 8) {
+
+                bitszam -= 8;
+                output.write((int) (bitek >>> bitszam));
             }
+            bitek &= (1L << bitszam) - 1;
         }
-        fos.write(szakadas == -1 ? 0 : szakadas);
-        fos.write(magn2);
-        fos.close();
+        output.write(kodszam % 8);
+        output.write(magn2);
+        output.flush();
     }
-    
+
+    static private int find(long[] kulcsok, long kulcs) {
+
+        int maszk = kulcsok.length - 1;
+        int hely = (int) ((kulcs * 0x9E3779B97F4A7C15L) >>> 40) & maszk;
+        while (kulcsok[hely] != -1 && kulcsok[hely] != kulcs) {
+            hely = (hely + 1) & maszk;
+        }
+        return hely;
+    }
+
     static public ByteArrayInputStream extract(ByteArrayInputStream input) throws Exception {
+        return new ByteArrayInputStream(extract((InputStream) input));
+    }
 
-        InputStream fis = input;
-        ArrayList<Byte> fosb = new ArrayList<>();
-        HashMap<Integer, String> szotar = new HashMap<>();
-        ArrayList<Integer> normalatlan = new ArrayList<>();
-        for (int i = 0; i < 256; i++) {
-            szotar.put(i, (char) i + "");
+    /**
+     * Reads compressed data from {@code input} to its end, and returns it
+     * decompressed. The stream is not closed.
+     */
+    static public byte[] extract(InputStream input) throws IOException {
+
+        ByteArrayOutputStream beolvasott = new ByteArrayOutputStream();
+        byte[] puffer = new byte[8192];
+        int n;
+        while ((n = input.read(puffer)) != -1) {
+            beolvasott.write(puffer, 0, n);
         }
-        int szakadas = 0, magn2 = 0, fajlveg = 0;
-        int rb;
-        while ((rb = fis.read()) != -1) {
+        return extract(beolvasott.toByteArray());
+    }
 
-            szakadas = magn2;
-            magn2 = rb;
-            fajlveg++;
+    /**
+     * Returns the decompressed form of the specified data.
+     */
+    static public byte[] extract(byte[] input) {
+
+        if (input.length < 2) {
+            return new byte[0];
         }
-        fis.reset();
-        for (int i = 0; i < fajlveg - 1; i += magn2) {
-            String normalt = "";
-            for (int ii = i; ii < i + magn2; ii++) {
-                if (ii - szakadas + magn2 < fajlveg*8 - 8) {
-                    normalt += BinToString(fis.read(), 8);
-                }
-            }
-            for (int ii = 0; ii + magn2 <= normalt.length(); ii += magn2) {
-                normalatlan.add(StringToBin(normalt.substring(ii, ii + magn2)));
-            }
+        int szakadas = input[input.length - 2] & 0xFF;
+        int magn2 = input[input.length - 1] & 0xFF;
+        int adathossz = input.length - 2;
+        if (magn2 < 8 || magn2 > 31) {
+            return new byte[0];
         }
-        String szo = (char) (int) normalatlan.remove(0) + "";
-        fosb.add((byte)szo.charAt(0));
-        for (int b : normalatlan) {
-
-            String szo1;
-            if (szotar.containsKey(b)) {
-                szo1 = szotar.get(b);
-            } else if (b == szotar.size()) {
-                szo1 = szo + szo.charAt(0);
-            } else {
-                break;
-            }
-            for (int i = 0; i < szo1.length(); i++) {
-                fosb.add((byte)szo1.charAt(i));
-            }
-            szotar.put(szotar.size(), szo + szo1.charAt(0));
-            szo = szo1;
+        int csoportok = adathossz / magn2;
+        int kodszam = szakadas == 0 ? csoportok * 8 : (csoportok - 1) * 8 + szakadas;
+        if (kodszam <= 0) {
+            return new byte[0];
         }
-        fis.close();
-        byte[] fos = new byte[fosb.size()];
-        for (int i=0; i<fosb.size(); i++) {
-            fos[i] = fosb.get(i);
+
+        // Entry k of the dictionary is entry elotag[k] followed by utolso[k]
+        int[] elotag = new int[256 + kodszam];
+        byte[] utolso = new byte[256 + kodszam];
+        byte[] elso = new byte[256 + kodszam];
+        int[] hossz = new int[256 + kodszam];
+        for (int i = 0; i < 256; i++) {
+
+            elotag[i] = -1;
+            utolso[i] = (byte) i;
+            elso[i] = (byte) i;
+            hossz[i] = 1;
         }
-        return new ByteArrayInputStream(fos);
-    }
+        int szotar_meret = 256;
 
-    static public String BinToString(int bin, int digits) {
+        byte[] kimenet = new byte[Math.max(adathossz * 2, 16)];
+        int kimenethossz = 0;
 
-        String s = "";
-        for (int i = 0; i < digits; i++) {
+        long bitek = 0;
+        int bitszam = 0;
+        int pozicio = 0;
+        int maszk = (1 << magn2) - 1;
+        int szo = -1;
+        for (int i = 0; i < kodszam; i++) {
 
-            s = Math.abs(bin % 2) + s;
-            bin >>>= 1;
-        }
-        return s;
-    }
+            while (bitszam < magn2) {
+
+                bitek = (bitek << 8) | (input[pozicio++] & 0xFF);
+                bitszam += 8;
+            }
+            bitszam -= magn2;
+            int b = (int) (bitek >>> bitszam) & maszk;
+
+            byte kezdet;
+            int szo1;
+            if (b < szotar_meret) {
+                szo1 = b;
+                kezdet = elso[b];
+            } else if (b == szotar_meret && szo != -1) {
+                szo1 = -1;
+                kezdet = elso[szo];
+            } else {
+                break;
+            }
 
-    static public int StringToBin(String s) {
+            if (szo != -1) {
 
-        int bin = 0;
-        for (int i = 0; i < s.length(); i++) {
+                elotag[szotar_meret] = szo;
+                utolso[szotar_meret] = kezdet;
+                elso[szotar_meret] = elso[szo];
+                hossz[szotar_meret] = hossz[szo] + 1;
+                szotar_meret++;
+            }
+            if (szo1 == -1) {
+                szo1 = szotar_meret - 1;
+            }
 
-            bin *= 2;
-            bin += Integer.parseInt(s.charAt(i) + "");
+            int h = hossz[szo1];
+            if (kimenethossz + h > kimenet.length) {
+                kimenet = Arrays.copyOf(kimenet, Math.max(kimenet.length * 2, kimenethossz + h));
+            }
+            for (int k = szo1, j = kimenethossz + h - 1; k != -1; k = elotag[k], j--) {
+                kimenet[j] = utolso[k];
+            }
+            kimenethossz += h;
+            szo = szo1;
         }
-        return bin;
+        return Arrays.copyOf(kimenet, kimenethossz);
     }
 }
@@ -0,0 +1,139 @@
+package origamieditor3d.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+
+/**
+ * A cache of {@link OriInfo} objects on the disk, keyed by the SHA-1 hash of
+ * the ORI file they were obtained from, so that listing a collection of models
+ * does not need to {@link OrigamiIO#probe(InputStream) probe} the same file
+ * twice, even if it is moved or renamed. <br>
+ * The index is loaded when created, and only written back by {@link #save()}.
+ *
+ * @since 2026-10-19
+ */
+public class OriIndex {
+
+    final static private String format_key = "format";
+    final static private String format = "1";
+
+    private final File file;
+    private final Properties entries;
+    private boolean changed;
+
+    /**
+     * @param file The file the index is stored in. It does not need to exist.
+     */
+    public OriIndex(File file) {
+
+        this.file = file;
+        entries = new Properties();
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+
+            entries.load(in);
+            if (!format.equals(entries.getProperty(format_key))) {
+                entries.clear();
+            }
+        } catch (IOException | IllegalArgumentException ex) {
+            entries.clear();
+        }
+        entries.setProperty(format_key, format);
+    }
+
+    /**
+     * Returns the index in the user's home directory.
+     */
+    static public OriIndex getDefault() {
+        return new OriIndex(new File(new File(System.getProperty("user.home"), ".origamieditor3d"), "models.index"));
+    }
+
+    /**
+     * Returns the information about an ORI file, probing it only if it is not
+     * in the index yet.
+     *
+     * @param ori The compressed ORI file. It is read to its end, but not
+     * closed.
+     * @return As described above.
+     * @throws Exception if the file is not an ORI file.
+     */
+    public OriInfo get(InputStream ori) throws Exception {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = ori.read(buffer)) != -1) {
+            bytes.write(buffer, 0, n);
+        }
+        return get(bytes.toByteArray());
+    }
+
+    /**
+     * Returns the information about an ORI file, probing it only if it is not
+     * in the index yet.
+     *
+     * @param ori The contents of the compressed ORI file.
+     * @return As described above.
+     * @throws Exception if the file is not an ORI file.
+     */
+    public synchronized OriInfo get(byte[] ori) throws Exception {
+
+        String key = hash(ori);
+        String line = entries.getProperty(key);
+        OriInfo info = line == null ? null : OriInfo.decode(line);
+        if (info == null) {
+
+            info = OrigamiIO.probe(new ByteArrayInputStream(ori));
+            entries.setProperty(key, info.encode());
+            changed = true;
+        }
+        return info;
+    }
+
+    /**
+     * Writes the index to its file if anything has been added since it was
+     * loaded or last saved.
+     */
+    public synchronized void save() throws IOException {
+
+        if (!changed) {
+            return;
+        }
+        Path target = file.toPath().toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            entries.store(out, "Origami Editor 3D model index");
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        changed = false;
+    }
+
+    static private String hash(byte[] data) {
+
+        try {
+
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-1").digest(data)) {
+                hex.append(String.format("%02x", b & 0xFF));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package origamieditor3d.io;
+
+import origamieditor3d.origami.Origami;
+
+/**
+ * What can be told about an ORI file from its header and command blocks
+ * alone, without executing any of them. Obtained from
+ * {@link OrigamiIO#probe(java.io.InputStream)}.
+ *
+ * @since 2026-10-19
+ */
+public class OriInfo {
+
+    private final int version;
+    private final Origami.PaperType paperType;
+    private final int corners;
+    private final int[] rgb;
+    private final boolean checkpoint;
+    private final int folds, rotations, partials, creases, cuts;
+
+    OriInfo(int version, Origami.PaperType paperType, int corners, int[] rgb, boolean checkpoint, int folds,
+            int rotations, int partials, int creases, int cuts) {
+
+        this.version = version;
+        this.paperType = paperType;
+        this.corners = corners;
+        this.rgb = rgb;
+        this.checkpoint = checkpoint;
+        this.folds = folds;
+        this.rotations = rotations;
+        this.partials = partials;
+        this.creases = creases;
+        this.cuts = cuts;
+    }
+
+    /**
+     * Returns the format version, 2 for first and 3 for second generation
+     * origami.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    public Origami.PaperType getPaperType() {
+        return paperType;
+    }
+
+    /**
+     * Returns the number of corners of a {@link Origami.PaperType#Custom custom}
+     * paper, or 0 for the other paper types.
+     */
+    public int getCorners() {
+        return corners;
+    }
+
+    /**
+     * Returns the saved paper color, or {@code null} if there is none.
+     */
+    public int[] getPaperColor() {
+        return rgb == null ? null : rgb.clone();
+    }
+
+    /**
+     * Tells if the file has a mesh checkpoint.
+     */
+    public boolean hasCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Returns the number of steps, that is, every command block except
+     * creases.
+     */
+    public int getSteps() {
+        return folds + rotations + partials + cuts;
+    }
+
+    public int getRotations() {
+        return rotations;
+    }
+
+    /**
+     * Returns the number of folds and cuts that only affect some layers.
+     */
+    public int getPartials() {
+        return partials;
+    }
+
+    public int getCreases() {
+        return creases;
+    }
+
+    public int getCuts() {
+        return cuts;
+    }
+
+    /**
+     * Rates the effort of folding the model from 1 to 5, judging by its
+     * command blocks alone. Every step counts once, rotation folds twice, and
+     * folds of selected layers three times, since those are the hardest to
+     * follow on real paper. <br>
+     * This is not the difficulty level of the diagrams, which is based on
+     * {@link Origami#difficulty()} and needs the model to be folded.
+     */
+    public int getEffort() {
+
+        int score = folds + cuts + 2 * rotations + 3 * partials;
+        if (score <= 5) {
+            return 1;
+        } else if (score <= 12) {
+            return 2;
+        } else if (score <= 25) {
+            return 3;
+        } else if (score <= 50) {
+            return 4;
+        }
+        return 5;
+    }
+
+    /**
+     * Returns this object as a single line of text, to be read back by
+     * {@link #decode(String)}.
+     */
+    public String encode() {
+
+        return version + ";" + paperType.toChar() + ";" + corners + ";"
+                + (rgb == null ? "-" : rgb[0] + "," + rgb[1] + "," + rgb[2]) + ";" + (checkpoint ? 1 : 0) + ";"
+                + folds + ";" + rotations + ";" + partials + ";" + creases + ";" + cuts;
+    }
+
+    /**
+     * Reads an object written by {@link #encode()}.
+     *
+     * @return As described above, or {@code null} if the text is malformed.
+     */
+    static public OriInfo decode(String text) {
+
+        try {
+
+            String[] fields = text.split(";");
+            int[] rgb = null;
+            if (!fields[3].equals("-")) {
+
+                String[] comps = fields[3].split(",");
+                rgb = new int[] { Integer.parseInt(comps[0]), Integer.parseInt(comps[1]), Integer.parseInt(comps[2]) };
+            }
+            return new OriInfo(Integer.parseInt(fields[0]), Origami.PaperType.forChar(fields[1].charAt(0)),
+                    Integer.parseInt(fields[2]), rgb, fields[4].equals("1"), Integer.parseInt(fields[5]),
+                    Integer.parseInt(fields[6]), Integer.parseInt(fields[7]), Integer.parseInt(fields[8]),
+                    Integer.parseInt(fields[9]));
+        } catch (RuntimeException ex) {
+            return null;
+        }
+    }
+}
@@ -1,11 +1,23 @@
 package origamieditor3d.io;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 
 import origamieditor3d.origami.Origami;
@@ -21,7 +33,31 @@ import origamieditor3d.origami.OrigamiGen2;
  */
 public class OrigamiIO {
 
+    /**
+     * The number of vertices from which {@link #write_gen2(Origami, String, int[])}
+     * saves a mesh checkpoint. Replaying the history of smaller models takes
+     * less time than it is worth making the file larger for.
+     */
+    final static public int checkpoint_min_vertices = 2048;
+
+    /**
+     * The first byte of a mesh checkpoint, identifying its layout.
+     */
+    final static private int mesh_format = 1;
+
     static public void write_gen2(Origami origami, String filename, int[] rgb) throws Exception {
+        write_gen2(origami, filename, rgb, origami.getVertices().size() >= checkpoint_min_vertices);
+    }
+
+    /**
+     * Saves an origami in the version 3 ORI format.
+     *
+     * @param checkpoint Whether to save the geometry of the origami along with
+     * its history, so that opening the file does not need to replay it. The
+     * checkpoint is stored after the end of the command blocks, and is flagged
+     * by a payload without data, so older versions simply ignore it.
+     */
+    static public void write_gen2(Origami origami, String filename, int[] rgb, boolean checkpoint) throws Exception {
 
         if (!(origami instanceof OrigamiGen2)) {
             write_gen1(origami, filename);
@@ -29,12 +65,7 @@ public class OrigamiIO {
         }
         try {
 
-            final int rand = new Random().nextInt(100000) + 100000;
-            File ori = new File(filename + String.valueOf(rand));
-            if (ori.exists()) {
-                ori.delete();
-            }
-            FileOutputStream str = new FileOutputStream(ori);
+            ByteArrayOutputStream str = new ByteArrayOutputStream();
 
             //OE3D
             str.write(0x4f);
@@ -45,11 +76,12 @@ public class OrigamiIO {
             //version 3
             str.write(3);
             //number of payloads
-            if (rgb == null) {
+            int payloads = (rgb == null ? 0 : 1) + (checkpoint ? 1 : 0);
+            if (payloads == 0) {
                 str.write(0x63); //compact
             }
             else {
-                str.write(1); //1 payload
+                str.write(payloads);
             }
             
             //paper type
@@ -81,6 +113,10 @@ public class OrigamiIO {
                 str.write(0xFF & rgb[1]);
                 str.write(0xFF & rgb[2]);
             }
+            //mesh checkpoint after EOF
+            if (checkpoint) {
+                str.write(0x4D); //M
+            }
             
             //command blocks
             for (int i = 0; i < origami.getHistoryPointer(); i++) {
@@ -95,9 +131,11 @@ public class OrigamiIO {
             str.write(0x4f);
             str.write(0x46);
 
-            str.close();
-            LZW.compress(new File(filename + String.valueOf(rand)), new File(filename));
-            ori.delete();
+            if (checkpoint) {
+                writeMesh(new DataOutputStream(str), origami);
+            }
+
+            writeCompressed(str.toByteArray(), filename);
 
         } catch (Exception ex) {
             throw OrigamiException.H005;
@@ -108,11 +146,7 @@ public class OrigamiIO {
 
         try {
 
-            File ori = new File(filename + "~");
-            if (ori.exists()) {
-                ori.delete();
-            }
-            FileOutputStream str = new FileOutputStream(ori);
+            ByteArrayOutputStream str = new ByteArrayOutputStream();
 
             //OE3D
             str.write(0x4f);
@@ -158,9 +192,7 @@ public class OrigamiIO {
             str.write(0x4f);
             str.write(0x46);
 
-            str.close();
-            LZW.compress(new File(filename + "~"), new File(filename));
-            ori.delete();
+            writeCompressed(str.toByteArray(), filename);
 
         } catch (Exception ex) {
 
@@ -168,13 +200,310 @@ public class OrigamiIO {
         }
     }
 
-    static public Origami read_gen2(ByteArrayInputStream ori, int[] rgb) throws Exception {
+    /**
+     * Writes the geometry of an origami. The coordinates are stored as
+     * {@code float}s, like the corners of the paper, and the paper space
+     * coordinates are only stored for the vertices that have been moved, since
+     * the others can be read off their place in the origami space.
+     */
+    static private void writeMesh(DataOutputStream str, Origami origami) throws IOException {
+
+        List<double[]> vertices = origami.getVertices();
+        List<double[]> vertices2d = origami.getVertices2d();
+        boolean wide = vertices.size() > 0xFFFF;
+
+        str.write(mesh_format);
+        str.writeInt(origami.getHistoryPointer());
+        str.writeInt(vertices.size());
+        for (double[] vertex : vertices) {
+
+            str.writeFloat((float) vertex[0]);
+            str.writeFloat((float) vertex[1]);
+            str.writeFloat((float) vertex[2]);
+        }
+        for (int i = 0; i < vertices.size(); i++) {
+
+            double[] vertex = vertices.get(i);
+            double[] vertex2d = vertices2d.get(i);
+            if ((float) vertex[2] == 0f && (float) vertex[0] == (float) vertex2d[0]
+                    && (float) vertex[1] == (float) vertex2d[1]) {
+                str.write(0); //unmoved
+            } else {
+
+                str.write(1);
+                str.writeFloat((float) vertex2d[0]);
+                str.writeFloat((float) vertex2d[1]);
+            }
+        }
+        str.writeInt(origami.getPolygons().size());
+        for (List<Integer> polygon : origami.getPolygons()) {
+
+            str.writeInt(polygon.size());
+            for (int index : polygon) {
+                writeIndex(str, index, wide);
+            }
+        }
+        str.writeInt(origami.getBorder().size());
+        for (int index : origami.getBorder()) {
+            writeIndex(str, index, wide);
+        }
+        str.flush();
+    }
+
+    static private void writeIndex(DataOutputStream str, int index, boolean wide) throws IOException {
+
+        if (wide) {
+            str.writeInt(index);
+        } else {
+            str.writeShort(index);
+        }
+    }
+
+    static private int readIndex(DataInputStream str, boolean wide) throws IOException {
+        return wide ? str.readInt() : str.readUnsignedShort();
+    }
+
+    /**
+     * Reads a mesh checkpoint and restores the origami from it.
+     *
+     * @return {@code false} if the checkpoint is missing or does not fit the
+     * history of the origami, in which case the origami is left unchanged.
+     */
+    static private boolean readMesh(InputStream input, Origami origami) {
+
+        try {
+
+            DataInputStream str = new DataInputStream(input);
+            if (str.read() != mesh_format) {
+                return false;
+            }
+            int pointer = str.readInt();
+            if (pointer != origami.getHistory().size()) {
+                return false;
+            }
+            int verticesSize = readSize(str);
+            boolean wide = verticesSize > 0xFFFF;
+            List<double[]> vertices = new ArrayList<>(verticesSize);
+            for (int i = 0; i < verticesSize; i++) {
+                vertices.add(new double[]{str.readFloat(), str.readFloat(), str.readFloat()});
+            }
+            List<double[]> vertices2d = new ArrayList<>(verticesSize);
+            for (double[] vertex : vertices) {
+
+                int moved = str.read();
+                if (moved == 0) {
+                    vertices2d.add(new double[]{vertex[0], vertex[1]});
+                } else if (moved == 1) {
+                    vertices2d.add(new double[]{str.readFloat(), str.readFloat()});
+                } else {
+                    return false;
+                }
+            }
+            int polygonsSize = readSize(str);
+            List<List<Integer>> polygons = new ArrayList<>(polygonsSize);
+            for (int i = 0; i < polygonsSize; i++) {
+
+                int size = readSize(str);
+                ArrayList<Integer> polygon = new ArrayList<>(size);
+                for (int ii = 0; ii < size; ii++) {
+
+                    int index = readIndex(str, wide);
+                    if (index < 0 || index >= verticesSize) {
+                        return false;
+                    }
+                    polygon.add(index);
+                }
+                polygons.add(polygon);
+            }
+            int borderSize = readSize(str);
+            List<Integer> border = new ArrayList<>(borderSize);
+            for (int i = 0; i < borderSize; i++) {
+                border.add(readIndex(str, wide));
+            }
+            origami.restore(pointer, vertices, vertices2d, polygons, border);
+            return true;
+        } catch (IOException | RuntimeException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads the length of a list, which cannot be more than the number of bytes
+     * left if the checkpoint is intact.
+     */
+    static private int readSize(DataInputStream str) throws IOException {
+
+        int size = str.readInt();
+        if (size < 0 || size > str.available()) {
+            throw new IOException();
+        }
+        return size;
+    }
+
+    /**
+     * Compresses the specified bytes into a temporary file next to the target,
+     * which then replaces the target in a single move, so that an existing file
+     * is never left half-written.
+     */
+    static private void writeCompressed(byte[] raw, String filename) throws IOException {
+
+        Path target = Paths.get(filename).toAbsolutePath();
+        // Not Files.createTempFile, which would give the result owner-only permissions
+        Path temp = target.resolveSibling(target.getFileName() + "." + (new Random().nextInt(100000) + 100000) + ".tmp");
+        try {
+
+            try (OutputStream out = new BufferedOutputStream(
+                    Files.newOutputStream(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE))) {
+                LZW.compress(new ByteArrayInputStream(raw), out);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Reads the header and counts the command blocks of an ORI file without
+     * executing them. Works for both generations of the format.
+     *
+     * @param ori The compressed ORI file. It is read to its end, but not
+     * closed.
+     * @return The information found.
+     * @throws Exception if the file is not an ORI file.
+     */
+    static public OriInfo probe(InputStream ori) throws Exception {
+
+        try {
+
+            byte[] str = LZW.extract(ori);
+            int pos = 0;
+            if (str.length < 12 || (str[pos++] & 0xFF) != 0x4f || (str[pos++] & 0xFF) != 0x45
+                    || (str[pos++] & 0xFF) != 0x33 || (str[pos++] & 0xFF) != 0x44) { //OE3D
+                throw OrigamiException.H005;
+            }
+            int version = str[pos++] & 0xFF;
+            int payloads = str[pos++] & 0xFF;
+            if (version != 2 && version != 3) {
+                throw OrigamiException.H005;
+            }
+
+            Origami.PaperType papertype = PaperType.forChar((char) (str[pos++] & 0xFF));
+            if (papertype == null) {
+                throw OrigamiException.H005;
+            }
+            int corners = 0;
+            if (papertype == Origami.PaperType.Custom) {
+
+                corners = str[pos++] & 0xFF;
+                pos += corners * 8;
+            } else {
+                pos++;
+            }
+
+            int[] rgb = null;
+            boolean checkpoint = false;
+            if (version == 3 && payloads != 0x63) {
+                for (int i = 0; i < payloads; i++) {
+
+                    int payload_id = str[pos++] & 0xFF;
+                    if (payload_id == 0x4D) { //mesh checkpoint
+                        checkpoint = true;
+                    } else if (payload_id == 0x43) { //paper color
+
+                        rgb = new int[]{str[pos] & 0xFF, str[pos + 1] & 0xFF, str[pos + 2] & 0xFF};
+                        pos += 3;
+                    }
+                }
+            }
+
+            //command blocks, by the type in the lowest 3 bits of the first byte
+            int folds = 0, rotations = 0, partials = 0, creases = 0, cuts = 0;
+            while (pos + 4 <= str.length) {
+
+                if ((str[pos] & 0xFF) == 0x0A && (str[pos + 1] & 0xFF) == 0x45 && (str[pos + 2] & 0xFF) == 0x4f
+                        && (str[pos + 3] & 0xFF) == 0x46) { //EOF
+                    return new OriInfo(version, papertype, corners, rgb, checkpoint, folds, rotations, partials,
+                            creases, cuts);
+                }
+                if (pos + 16 > str.length) {
+                    break;
+                }
+                switch ((str[pos] & 0xFF) % 8) {
+                    case 1:
+                        folds++;
+                        break;
+                    case 2:
+                    case 3:
+                        rotations++;
+                        break;
+                    case 7:
+                        creases++;
+                        break;
+                    case 0:
+                        if ((str[pos + 2] & 0xFF) == 0xFF && (str[pos + 3] & 0xFF) == 0xFF) {
+                            cuts++;
+                        } else {
+                            partials++;
+                        }
+                        break;
+                    default:
+                        partials++;
+                        break;
+                }
+                pos += 16;
+            }
+            throw OrigamiException.H005;
+
+        } catch (Exception ex) {
+            throw OrigamiException.H005;
+        }
+    }
+
+    /**
+     * Reads an origami from an ORI file of either generation.
+     *
+     * @param ori The compressed ORI file. It is read from its current position
+     * to its end, but not closed.
+     * @param rgb If not {@code null}, receives the paper color saved in the
+     * file, if there is one.
+     */
+    static public Origami read_gen2(InputStream ori, int[] rgb) throws Exception {
+
+        try {
+            return read_gen2(LZW.extract(ori), rgb);
+        } catch (IOException ex) {
+            throw OrigamiException.H005;
+        }
+    }
+
+    /**
+     * Reads an origami from an ORI file of either generation on the disk.
+     *
+     * @param rgb If not {@code null}, receives the paper color saved in the
+     * file, if there is one.
+     */
+    static public Origami read_gen2(File ori, int[] rgb) throws Exception {
+
+        try {
+            return read_gen2(LZW.extract(Files.readAllBytes(ori.toPath())), rgb);
+        } catch (IOException ex) {
+            throw OrigamiException.H005;
+        }
+    }
+
+    /**
+     * Reads an origami from the decompressed contents of an ORI file.
+     */
+    static private Origami read_gen2(byte[] raw, int[] rgb) throws Exception {
 
         try {
 
             Origami origami;
-            ori.reset();
-            InputStream str = LZW.extract(ori);
+            InputStream str = new ByteArrayInputStream(raw);
 
             //reading header
             int fejlec1 = str.read();
@@ -198,7 +527,7 @@ public class OrigamiIO {
                 if ((fejlec2 & 0xFF00) != 0x0300) { //ver 3
 
                     str.close();
-                    return read_gen1(ori);
+                    return read_gen1(raw);
                 } else {
 
                     //paper type
@@ -238,11 +567,15 @@ public class OrigamiIO {
                         origami = new OrigamiGen2(sarkok);
                     }
                     
+                    boolean checkpoint = false;
                     if ((fejlec2 & 0xFF) != 0x63) {
                         for (int i=0; i<(fejlec2 & 0xFF); i++) {
                             
                             int payload_id = str.read();
-                            if (payload_id == 0x43) { //paper color
+                            if (payload_id == 0x4D) { //mesh checkpoint
+                                checkpoint = true;
+                            }
+                            else if (payload_id == 0x43) { //paper color
                                 if (rgb != null) {
                                     
                                     rgb[0] = str.read();
@@ -294,7 +627,9 @@ public class OrigamiIO {
                         block[++i] = str.read();
                         header = (((((block[0] << 8) + block[1]) << 8) + block[2]) << 8) + block[3];
                     }
-                    origami.redoAll();
+                    if (!checkpoint || !readMesh(str, origami)) {
+                        origami.redoAll();
+                    }
                     str.close();
                     return origami;
                 }
@@ -304,13 +639,31 @@ public class OrigamiIO {
         }
     }
 
-    static public Origami read_gen1(ByteArrayInputStream ori) throws Exception {
+    /**
+     * Reads an origami from a first generation ORI file.
+     *
+     * @param ori The compressed ORI file. It is read from its current position
+     * to its end, but not closed.
+     */
+    static public Origami read_gen1(InputStream ori) throws Exception {
+
+        try {
+            return read_gen1(LZW.extract(ori));
+        } catch (IOException ex) {
+            throw OrigamiException.H005;
+        }
+    }
+
+    /**
+     * Reads a first generation origami from the decompressed contents of an
+     * ORI file.
+     */
+    static private Origami read_gen1(byte[] raw) throws Exception {
 
         try {
 
             Origami origami;
-            ori.reset();
-            InputStream str = LZW.extract(ori);
+            InputStream str = new ByteArrayInputStream(raw);
 
             int fejlec1 = str.read();
             fejlec1 <<= 8;
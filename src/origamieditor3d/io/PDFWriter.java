@@ -0,0 +1,179 @@
+package origamieditor3d.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes the objects of a PDF file straight to an output stream, keeping
+ * track of the offset of each object as it goes, so that the cross-reference
+ * table can be written at the end without holding the file in memory. <br>
+ * Content streams are built in {@link Content} objects, which compress their
+ * text with the Flate algorithm as it is written to them. They do not depend
+ * on the writer, so they can be filled on any thread.
+ *
+ * @since 2026-10-19
+ */
+public class PDFWriter {
+
+    final static private Charset charset = Charset.forName("UTF-8");
+
+    /**
+     * The compressed contents of a PDF content stream.
+     */
+    static public class Content extends Writer {
+
+        private final ByteArrayOutputStream bytes;
+        private final Writer text;
+        private boolean closed;
+
+        public Content() {
+
+            bytes = new ByteArrayOutputStream();
+            text = new OutputStreamWriter(new DeflaterOutputStream(bytes), charset);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            text.write(cbuf, off, len);
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            text.write(str, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            text.flush();
+        }
+
+        /**
+         * Finishes the compression. Nothing can be written afterwards.
+         */
+        @Override
+        public void close() throws IOException {
+
+            if (!closed) {
+
+                text.close();
+                closed = true;
+            }
+        }
+
+        /**
+         * Returns the compressed bytes, closing this content first.
+         */
+        public byte[] toByteArray() throws IOException {
+
+            close();
+            return bytes.toByteArray();
+        }
+    }
+
+    private final OutputStream out;
+    private long position;
+    private final List<Long> offsets;
+
+    /**
+     * Writes the header of the PDF file.
+     *
+     * @param out The stream to write to. Should be buffered.
+     */
+    public PDFWriter(OutputStream out) throws IOException {
+
+        this.out = out;
+        offsets = new ArrayList<>();
+        write("%PDF-1.3\n\n");
+    }
+
+    /**
+     * Returns the number of bytes written so far.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    public void write(String text) throws IOException {
+        write(text.getBytes(charset));
+    }
+
+    private void write(byte[] data) throws IOException {
+
+        out.write(data);
+        position += data.length;
+    }
+
+    /**
+     * Starts the object with the specified number. Objects can be written in
+     * any order, but every number up to the highest one must be written
+     * before {@link #finish(int)}.
+     */
+    public void beginObject(int number) throws IOException {
+
+        while (offsets.size() < number) {
+            offsets.add(null);
+        }
+        offsets.set(number - 1, position);
+        write(number + " 0 obj\n");
+    }
+
+    public void endObject() throws IOException {
+        write("endobj\n\n");
+    }
+
+    /**
+     * Writes a whole object consisting of a compressed content stream.
+     */
+    public void stream(int number, Content content) throws IOException {
+
+        byte[] data = content.toByteArray();
+        beginObject(number);
+        write("<< /Length " + data.length + " /Filter /FlateDecode >>\nstream\n");
+        write(data);
+        write("\nendstream\n");
+        endObject();
+    }
+
+    /**
+     * Writes a whole object consisting of a content stream with the specified
+     * text.
+     */
+    public void stream(int number, String text) throws IOException {
+
+        Content content = new Content();
+        content.write(text);
+        stream(number, content);
+    }
+
+    /**
+     * Writes the cross-reference table and the trailer, and flushes the
+     * stream. The stream is not closed.
+     *
+     * @param root The number of the catalog object.
+     */
+    public void finish(int root) throws IOException {
+
+        long xref = position;
+        StringBuilder table = new StringBuilder();
+        table.append("xref\n0 ").append(offsets.size() + 1).append('\n');
+        table.append("0000000000 65535 f \n");
+        for (int i = 0; i < offsets.size(); i++) {
+
+            if (offsets.get(i) == null) {
+                throw new IOException("Object " + (i + 1) + " is missing");
+            }
+            table.append(String.format("%010d 00000 n \n", offsets.get(i)));
+        }
+        table.append("trailer\n<< /Root ").append(root).append(" 0 R\n/Size ").append(offsets.size() + 1)
+                .append("\n>>\nstartxref\n").append(xref).append("\n%%EOF");
+        write(table.toString());
+        out.flush();
+    }
+}
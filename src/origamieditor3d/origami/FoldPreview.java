@@ -0,0 +1,175 @@
+package origamieditor3d.origami;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Computes the result of a fold ahead of time on a background thread, so that
+ * it can be shown while the user is still positioning the ruler. Results are
+ * memoised by the folding plane as it would be rounded when the fold is
+ * actually made (see {@link OrigamiGen1#planarPointRound(double[], double[])
+ * planarPointRound} and {@link OrigamiGen1#normalvectorRound(double[], double[])
+ * normalvectorRound}), the angle and the target, so nearby ruler positions
+ * share the same result.
+ *
+ * @since 2026-10-19
+ */
+public class FoldPreview {
+
+	final static private int memo_capacity = 32;
+
+	private final ExecutorService worker;
+	private final Runnable onReady;
+
+	private Origami origami;
+	private long version;
+	private final Map<String, Origami> memo;
+	private Origami latest;
+	private String pending_key;
+	private Future<?> pending;
+
+	/**
+	 * @param onReady
+	 *            Called from the background thread each time a new preview is
+	 *            available, e. g. to repaint a panel.
+	 */
+	public FoldPreview(Runnable onReady) {
+
+		this.onReady = onReady;
+		worker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+
+				Thread thread = new Thread(r, "Fold preview");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		memo = new LinkedHashMap<String, Origami>(memo_capacity, .75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Origami> eldest) {
+				return size() > memo_capacity;
+			}
+		};
+	}
+
+	/**
+	 * Returns the origami as it would look after a fold along the specified
+	 * plane. If this result is not known yet, it is scheduled for computation,
+	 * cancelling any other pending one, and the most recent result computed for
+	 * the same state of the origami is returned instead.
+	 *
+	 * @param phi
+	 *            The angle of a rotation fold, or {@code null} for a reflection
+	 *            fold.
+	 * @param target
+	 *            The point of the paper whose polygon is to be folded, the same
+	 *            way as the {@code target} command of the script, or
+	 *            {@code null} to fold the whole origami.
+	 * @return As described above, or {@code null} if nothing has been computed
+	 *         for the current state of the origami yet.
+	 */
+	public synchronized Origami request(Origami origami, double[] ppoint, double[] pnormal, Integer phi,
+			double[] target) {
+
+		if (this.origami != origami || version != origami.version()) {
+
+			this.origami = origami;
+			version = origami.version();
+			memo.clear();
+			latest = null;
+			pending_key = null;
+		}
+
+		final String key = Arrays.toString(OrigamiGen1.planarPointRound(ppoint, pnormal))
+				+ Arrays.toString(OrigamiGen1.normalvectorRound(ppoint, pnormal)) + phi + Arrays.toString(target);
+		Origami result = memo.get(key);
+		if (result != null) {
+
+			latest = result;
+			return result;
+		}
+
+		if (!key.equals(pending_key)) {
+
+			if (pending != null) {
+				pending.cancel(false);
+			}
+			pending_key = key;
+			final Origami source = origami;
+			final long ver = version;
+			final Origami snapshot = origami.snapshot();
+			final double[] pt = ppoint.clone();
+			final double[] nv = pnormal.clone();
+			final Integer angle = phi;
+			final double[] targ = target == null ? null : target.clone();
+			pending = worker.submit(new Runnable() {
+				@Override
+				public void run() {
+
+					try {
+
+						if (targ == null) {
+
+							if (angle == null) {
+								snapshot.reflectionFold(pt, nv);
+							}
+							else {
+								snapshot.rotationFold(pt, nv, angle);
+							}
+						}
+						else {
+
+							snapshot.crease(pt, nv);
+							int polygonIndex = snapshot.findPolygonContaining(targ);
+							if (angle == null) {
+								snapshot.reflectionFold(pt, nv, polygonIndex);
+							}
+							else {
+								snapshot.rotationFold(pt, nv, angle, polygonIndex);
+							}
+						}
+					}
+					catch (Exception ex) {
+						return;
+					}
+					synchronized (FoldPreview.this) {
+
+						if (FoldPreview.this.origami != source || version != ver) {
+							return;
+						}
+						memo.put(key, snapshot);
+						if (key.equals(pending_key)) {
+							latest = snapshot;
+							pending_key = null;
+						}
+					}
+					onReady.run();
+				}
+			});
+		}
+		return latest;
+	}
+
+	/**
+	 * Forgets every result computed so far.
+	 */
+	public synchronized void clear() {
+
+		if (pending != null) {
+			pending.cancel(false);
+		}
+		origami = null;
+		memo.clear();
+		latest = null;
+		pending_key = null;
+	}
+}
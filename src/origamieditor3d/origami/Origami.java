@@ -106,6 +106,26 @@ public interface Origami {
 
 	List<Integer> getBorder();
 
+	final static int EDGE_BORDER = 0;
+	final static int EDGE_CREASE = 1;
+	final static int EDGE_FOLD = 2;
+
+	/**
+	 * Returns every edge of the {@link #isStrictlyNonDegenerate(int) strictly
+	 * non-degenerate} polygons of this origami exactly once, no matter how many
+	 * polygons share it. Each element is an {@code int[]} of the form
+	 * {@code {vertex1, vertex2, type}}, where the first two values are indices
+	 * pointing into both the {@link #getVertices() vertices} and the
+	 * {@link #getVertices2d() vertices2d} list, and {@code type} is one of
+	 * {@link #EDGE_BORDER}, {@link #EDGE_CREASE} (the adjacent polygons lie flat)
+	 * or {@link #EDGE_FOLD}. <br>
+	 * The list is cached until the next change in the geometry of this origami and
+	 * should not be modified.
+	 *
+	 * @return As described above.
+	 */
+	List<int[]> getEdges();
+
 	void addCommand(int commandID, double[] ppoint, double[] pnormal, int polygonIndex, int phi);
 
 	void addCommand(int[] cblock);
@@ -280,6 +300,51 @@ public interface Origami {
 	double[] find3dImageOf(double... point2d);
 
 	Origami copy();
+
+	/**
+	 * Returns a copy of this origami in its current state, without replaying its
+	 * {@link #getHistory() history}. The copy shares its vertices and polygons
+	 * with this origami, so it is cheap to make, and it does not change when this
+	 * origami is folded further. <br>
+	 * A snapshot may be folded, undone or redone like any other origami: folding
+	 * never mutates a vertex array or a polygon list in place, it only replaces
+	 * the elements of the vertex and polygon lists, which each snapshot has its
+	 * own copy of. Implementations must keep to this, since snapshots are read
+	 * from other threads while the original is folded.
+	 *
+	 * @return As described above.
+	 */
+	Origami snapshot();
+
+	/**
+	 * Puts this origami in the state it would be in after executing the first
+	 * {@code historyPointer} steps of its {@link #getHistory() history}, without
+	 * executing them. The geometry given must be that of the same origami at the
+	 * same step (e. g. one saved earlier); it is not checked. Undoing to an
+	 * earlier step replays the history as usual.
+	 *
+	 * @param historyPointer
+	 *            The new {@link #getHistoryPointer() history pointer}.
+	 * @param vertices
+	 *            The new {@link #getVertices() vertices} list.
+	 * @param vertices2d
+	 *            The new {@link #getVertices2d() vertices2d} list.
+	 * @param polygons
+	 *            The new {@link #getPolygons() polygons} list.
+	 * @param border
+	 *            The new {@link #getBorder() border} list.
+	 */
+	void restore(int historyPointer, List<double[]> vertices, List<double[]> vertices2d,
+			List<List<Integer>> polygons, List<Integer> border);
+
+	/**
+	 * Returns a number that changes every time the geometry of this origami does,
+	 * so that anything computed from the {@link #getVertices() vertices} and the
+	 * {@link #getPolygons() polygons} can be cached against it.
+	 *
+	 * @return As described above.
+	 */
+	long version();
 	
 	public class FoldingAction {
 
@@ -1,6 +1,8 @@
 package origamieditor3d.origami;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 
 /**
@@ -80,6 +82,36 @@ public class OrigamiGen1 implements Origami {
 		execute();
 	}
 
+	/**
+	 * Creates a copy of the specified origami in its current state. Unlike
+	 * {@link #OrigamiGen1(OrigamiGen1)}, this constructor does not replay the
+	 * {@link #getHistory() history}; the vertex and polygon lists are copied
+	 * instead. This works because folding operations never modify a vertex or a
+	 * polygon in place, they only replace them.
+	 *
+	 * @param origami
+	 *            The origami to copy.
+	 * @param snapshot
+	 *            Ignored; only here to distinguish this constructor.
+	 * @see #snapshot()
+	 */
+	protected OrigamiGen1(OrigamiGen1 origami, boolean snapshot) {
+
+		vertices = new ArrayList<>(origami.vertices);
+		vertices2d = new ArrayList<>(origami.vertices2d);
+		verticesSize = origami.verticesSize;
+		polygons = new ArrayList<>(origami.polygons);
+		polygonsSize = origami.polygonsSize;
+		paperType = origami.paperType;
+		corners = new ArrayList<double[]>(origami.corners);
+		border = new ArrayList<Integer>(origami.border);
+		history = new ArrayList<FoldingAction>(origami.history);
+		historyStream = new ArrayList<int[]>(origami.historyStream);
+		historyPointer = origami.historyPointer;
+		edges = origami.edges;
+		version = origami.version;
+	}
+
 	/* (non-Javadoc)
 	 * @see origamieditor3d.origami.OrigamiI#generation()
 	 */
@@ -200,6 +232,107 @@ public class OrigamiGen1 implements Origami {
 		return border;
 	}
 
+	protected List<int[]> edges;
+
+	protected long version = 0;
+
+	/* (non-Javadoc)
+	 * @see origamieditor3d.origami.Origami#version()
+	 */
+	@Override
+	public long version() {
+		return version;
+	}
+
+	/**
+	 * Drops every cached property of the geometry and increments the
+	 * {@link #version() version} of this origami. Should be called whenever the
+	 * {@link #getVertices() vertices} or the {@link #getPolygons() polygons}
+	 * change.
+	 */
+	protected void geometryChanged() {
+
+		edges = null;
+		version++;
+	}
+
+	/* (non-Javadoc)
+	 * @see origamieditor3d.origami.Origami#getEdges()
+	 */
+	@Override
+	public List<int[]> getEdges() {
+
+		if (edges == null) {
+			edges = collectEdges();
+		}
+		return edges;
+	}
+
+	/**
+	 * Builds the list returned by {@link #getEdges() getEdges}. Edges are
+	 * identified by their (unordered) pair of vertex indices; an edge is a
+	 * {@link #EDGE_FOLD fold} iff two of its adjacent polygons are not
+	 * parallel.
+	 *
+	 * @return A new list of unique edges.
+	 */
+	protected List<int[]> collectEdges() {
+
+		HashSet<Long> borderkeys = new HashSet<>();
+		for (int i = 0; i < border.size(); i++) {
+			borderkeys.add(edgeKey(border.get(i), border.get((i + 1) % border.size())));
+		}
+
+		List<int[]> list = new ArrayList<>();
+		HashMap<Long, int[]> found = new HashMap<>();
+		HashMap<Long, double[]> firstnormal = new HashMap<>();
+
+		for (int i = 0; i < polygonsSize; i++) {
+
+			if (!isStrictlyNonDegenerate(i)) {
+				continue;
+			}
+			List<Integer> poly = polygons.get(i);
+			double[] fnormal = new double[] { 0, 0, 0 };
+			for (int ii = 0; ii < poly.size(); ii++) {
+
+				double[] p1 = vertices.get(poly.get(ii));
+				double[] p2 = vertices.get(poly.get((ii + 1) % poly.size()));
+				fnormal[0] += (p1[1] - p2[1]) * (p1[2] + p2[2]);
+				fnormal[1] += (p1[2] - p2[2]) * (p1[0] + p2[0]);
+				fnormal[2] += (p1[0] - p2[0]) * (p1[1] + p2[1]);
+			}
+			fnormal = Geometry.normalizeVector(fnormal);
+
+			for (int ii = 0; ii < poly.size(); ii++) {
+
+				int v1 = poly.get(ii);
+				int v2 = poly.get((ii + 1) % poly.size());
+				if (v1 == v2) {
+					continue;
+				}
+				long key = edgeKey(v1, v2);
+				int[] edge = found.get(key);
+				if (edge == null) {
+
+					edge = new int[] { v1, v2, borderkeys.contains(key) ? EDGE_BORDER : EDGE_CREASE };
+					found.put(key, edge);
+					firstnormal.put(key, fnormal);
+					list.add(edge);
+				}
+				else if (edge[2] == EDGE_CREASE
+						&& Geometry.scalarProduct(firstnormal.get(key), fnormal) < 1 - 0.00000001) {
+					edge[2] = EDGE_FOLD;
+				}
+			}
+		}
+		return list;
+	}
+
+	private static long edgeKey(int v1, int v2) {
+		return ((long) Math.min(v1, v2) << 32) | Math.max(v1, v2);
+	}
+
 	/**
 	 * Adds a new vertex to the end of the {@link #getVertices() vertices} list of
 	 * this origami.
@@ -1362,6 +1495,7 @@ public class OrigamiGen1 implements Origami {
 		}
 
 		border = new ArrayList<Integer>(polygons.get(0));
+		geometryChanged();
 	}
 
 	/* (non-Javadoc)
@@ -1370,6 +1504,7 @@ public class OrigamiGen1 implements Origami {
 	@Override
 	public void execute() {
 
+		geometryChanged();
 		for (int i = 0; i < historyPointer; i++) {
 
 			FoldingAction fa = history.get(i);
@@ -1383,6 +1518,7 @@ public class OrigamiGen1 implements Origami {
 	@Override
 	public void execute(int index, int steps) {
 
+		geometryChanged();
 		if (index + steps <= history.size()) {
 			for (int i = index; i < index + steps && i >= 0; i++) {
 
@@ -1431,12 +1567,13 @@ public class OrigamiGen1 implements Origami {
 
 		if (history.size() > historyPointer) {
 
+			int from = historyPointer;
 			historyPointer++;
 			while (history.get(historyPointer - 1).foldID == FoldingAction.FOLD_CREASE) {
 				historyPointer++;
 			}
-			reset();
-			execute();
+			// The steps before the pointer are already in place; no replay needed
+			execute(from, historyPointer - from);
 		}
 	}
 
@@ -1448,9 +1585,8 @@ public class OrigamiGen1 implements Origami {
 
 		if (historyPointer + steps <= history.size()) {
 
+			execute(historyPointer, steps);
 			historyPointer += steps;
-			reset();
-			execute();
 		}
 	}
 
@@ -1462,9 +1598,8 @@ public class OrigamiGen1 implements Origami {
 
 		if (history.size() > historyPointer) {
 
+			execute(historyPointer, history.size() - historyPointer);
 			historyPointer = history.size();
-			reset();
-			execute();
 		}
 	}
 
@@ -2164,4 +2299,29 @@ public class OrigamiGen1 implements Origami {
 		OrigamiGen1 copy = new OrigamiGen1(this);
 		return copy;
 	}
+
+	/* (non-Javadoc)
+	 * @see origamieditor3d.origami.Origami#restore(int, java.util.List, java.util.List, java.util.List, java.util.List)
+	 */
+	@Override
+	public void restore(int historyPointer, List<double[]> vertices, List<double[]> vertices2d,
+			List<List<Integer>> polygons, List<Integer> border) {
+
+		this.historyPointer = historyPointer;
+		this.vertices = new ArrayList<>(vertices);
+		this.vertices2d = new ArrayList<>(vertices2d);
+		this.polygons = new ArrayList<>(polygons);
+		this.border = new ArrayList<>(border);
+		verticesSize = this.vertices.size();
+		polygonsSize = this.polygons.size();
+		geometryChanged();
+	}
+
+	/* (non-Javadoc)
+	 * @see origamieditor3d.origami.Origami#snapshot()
+	 */
+	@Override
+	public OrigamiGen1 snapshot() {
+		return new OrigamiGen1(this, true);
+	}
 }
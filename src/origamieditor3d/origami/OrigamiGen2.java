@@ -24,6 +24,10 @@ public class OrigamiGen2 extends OrigamiGen1 {
         super(origami);
     }
 
+    protected OrigamiGen2(OrigamiGen1 origami, boolean snapshot) {
+        super(origami, snapshot);
+    }
+
     @Override
     public int generation() {
         return 2;
@@ -130,4 +134,9 @@ public class OrigamiGen2 extends OrigamiGen1 {
         OrigamiGen2 copy = new OrigamiGen2(this);
         return copy;
     }
+
+    @Override
+    public OrigamiGen2 snapshot() {
+        return new OrigamiGen2(this, true);
+    }
 }
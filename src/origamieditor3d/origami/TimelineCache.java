@@ -0,0 +1,248 @@
+package origamieditor3d.origami;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Keeps {@link Origami#snapshot() snapshots} of an origami at the steps of its
+ * folding history around the one being looked at, so that scrubbing through
+ * the timeline does not require replaying the whole history for every step.
+ * Missing steps are computed on a background thread by folding forward from
+ * the closest known step below, and the steps ahead in the scrubbing direction
+ * are prefetched along with them. Snapshots are held in a bounded LRU cache.
+ *
+ * @since 2026-10-19
+ */
+public class TimelineCache {
+
+	final static public int default_capacity = 64;
+	final static public int default_prefetch = 8;
+
+	private final int capacity, prefetch;
+	private final ExecutorService worker;
+	private final Runnable onReady;
+
+	private final Map<Integer, Origami> steps;
+	private List<Origami.FoldingAction> history;
+	private List<double[]> corners;
+	private Origami source;
+	private int pending_lo = -1, pending_hi = -1;
+	private Future<?> pending;
+
+	/**
+	 * @param onReady
+	 *            Called from the background thread each time new steps are
+	 *            available.
+	 */
+	public TimelineCache(Runnable onReady) {
+		this(default_capacity, default_prefetch, onReady);
+	}
+
+	/**
+	 * @param capacity
+	 *            The maximum number of snapshots to hold.
+	 * @param prefetch
+	 *            The number of steps to compute ahead in the scrubbing
+	 *            direction.
+	 * @param onReady
+	 *            Called from the background thread each time new steps are
+	 *            available.
+	 */
+	public TimelineCache(final int capacity, int prefetch, Runnable onReady) {
+
+		this.capacity = capacity;
+		this.prefetch = Math.min(prefetch, capacity / 2);
+		this.onReady = onReady;
+		worker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+
+				Thread thread = new Thread(r, "Timeline prefetch");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		steps = new LinkedHashMap<Integer, Origami>(capacity, .75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, Origami> eldest) {
+				return size() > TimelineCache.this.capacity;
+			}
+		};
+	}
+
+	/**
+	 * Returns a snapshot of the origami with its history pointer at the
+	 * specified step. The returned object is shared and must not be modified;
+	 * take a {@link Origami#snapshot() snapshot} of it to do so. If the step is
+	 * not known yet, it is scheduled for computation along with the next few
+	 * steps in the given direction, cancelling any other pending computation.
+	 *
+	 * @param origami
+	 *            The origami whose history is being browsed. It is only read
+	 *            on the calling thread.
+	 * @param step
+	 *            The position of the history pointer.
+	 * @param direction
+	 *            The direction of scrubbing; positive for forward, negative for
+	 *            backward, zero if unknown.
+	 * @return As described above, or {@code null} if the step has not been
+	 *         computed yet.
+	 */
+	public synchronized Origami request(Origami origami, int step, int direction) {
+
+		if (!isSameLineage(origami)) {
+
+			clear();
+			history = new ArrayList<>(origami.getHistory());
+			corners = new ArrayList<>(origami.getCorners());
+			source = origami.snapshot();
+		}
+		if (step < 0 || step > history.size()) {
+			return null;
+		}
+
+		int lo = step, hi = step;
+		if (direction > 0) {
+			hi = Math.min(step + prefetch, history.size());
+		}
+		else if (direction < 0) {
+			lo = Math.max(step - prefetch, 0);
+		}
+
+		Origami result = steps.get(step);
+		if (result != null && isCached(lo, hi)) {
+			return result;
+		}
+		if (pending != null && !pending.isDone() && pending_lo <= lo && hi <= pending_hi) {
+			return result;
+		}
+
+		if (pending != null) {
+			pending.cancel(true);
+		}
+		pending_lo = lo;
+		pending_hi = hi;
+		final int flo = lo, fhi = hi;
+		final Origami fsource = source;
+		pending = worker.submit(new Runnable() {
+			@Override
+			public void run() {
+				compute(fsource, flo, fhi);
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Forgets every snapshot and cancels the pending computation.
+	 */
+	public synchronized void clear() {
+
+		if (pending != null) {
+			pending.cancel(true);
+		}
+		pending = null;
+		pending_lo = pending_hi = -1;
+		steps.clear();
+		history = null;
+		corners = null;
+		source = null;
+	}
+
+	private boolean isSameLineage(Origami origami) {
+
+		if (history == null || history.size() != origami.getHistory().size()
+				|| corners.size() != origami.getCorners().size()) {
+			return false;
+		}
+		for (int i = 0; i < history.size(); i++) {
+			if (history.get(i) != origami.getHistory().get(i)) {
+				return false;
+			}
+		}
+		for (int i = 0; i < corners.size(); i++) {
+			if (corners.get(i) != origami.getCorners().get(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isCached(int lo, int hi) {
+
+		for (int i = lo; i <= hi; i++) {
+			if (!steps.containsKey(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void compute(Origami source, int lo, int hi) {
+
+		// Start from the closest step at or below lo that is already known
+		Origami current = null;
+		int at = -1;
+		synchronized (this) {
+
+			if (this.source != source) {
+				return;
+			}
+			for (Map.Entry<Integer, Origami> entry : steps.entrySet()) {
+				if (entry.getKey() <= lo && entry.getKey() > at) {
+
+					at = entry.getKey();
+					current = entry.getValue();
+				}
+			}
+		}
+		if (current == null) {
+
+			current = source.snapshot();
+			current.undo(current.getHistoryPointer());
+			at = 0;
+			if (!store(source, 0, current)) {
+				return;
+			}
+		}
+
+		for (int i = at + 1; i <= hi; i++) {
+
+			if (Thread.currentThread().isInterrupted()) {
+				return;
+			}
+			Origami next;
+			synchronized (this) {
+				next = steps.get(i);
+			}
+			if (next == null) {
+
+				next = current.snapshot();
+				next.redo(1);
+				if (i >= lo && !store(source, i, next)) {
+					return;
+				}
+			}
+			current = next;
+		}
+		onReady.run();
+	}
+
+	private synchronized boolean store(Origami source, int step, Origami snapshot) {
+
+		if (this.source != source) {
+			return false;
+		}
+		steps.put(step, snapshot);
+		return true;
+	}
+}
@@ -4,6 +4,9 @@ import java.util.Scanner;
 import java.io.InputStream;
 import java.util.ArrayList;
 
+import origamieditor3d.io.OriIndex;
+import origamieditor3d.io.OriInfo;
+
 /**
  *
  * @author Attila Bágyoni (ba-sz-at@users.sourceforge.net)
@@ -14,6 +17,19 @@ public class ExampleModels {
         return getClass().getResourceAsStream("/res/models/"+name);
     }
 
+    /**
+     * Returns the information about a model without loading it.
+     *
+     * @param index The index to look the model up in, and to add it to if it
+     * is not there.
+     */
+    public OriInfo getInfo(String name, OriIndex index) throws Exception {
+
+        try (InputStream ori = getFile(name)) {
+            return index.get(ori);
+        }
+    }
+
     public ArrayList<String> names() {
 
         ArrayList<String> namelist = new ArrayList<>();
@@ -17,6 +17,7 @@ import java.util.concurrent.TimeoutException;
 
 import origamieditor3d.graphics.Camera;
 import origamieditor3d.io.Export;
+import origamieditor3d.io.ExportQueue;
 import origamieditor3d.io.OrigamiIO;
 import origamieditor3d.origami.Geometry;
 import origamieditor3d.origami.Origami;
@@ -103,6 +104,29 @@ public class OrigamiScriptTerminalV1 implements OrigamiScriptTerminal {
 
 	final static private int default_paper_color = 0x000097;
 	private java.awt.image.BufferedImage paperTexture;
+	private ExportQueue exportQueue;
+
+	/**
+	 * Makes the export commands add their exports to the specified queue
+	 * instead of running them right away. The model is copied when the command
+	 * is executed, so it can be changed while the export is in progress.
+	 *
+	 * @param queue
+	 *            The queue to use, or {@code null} to export immediately.
+	 */
+	public void setExportQueue(ExportQueue queue) {
+		exportQueue = queue;
+	}
+
+	private void export(String name, String filename, ExportQueue.Task task) throws Exception {
+
+		if (exportQueue != null) {
+			exportQueue.submit(name, filename, task);
+		}
+		else {
+			task.run(null);
+		}
+	}
 
 	/* (non-Javadoc)
 	 * @see origamieditor3d.script.OrigamiScriptTerminal#getPaperTexture()
@@ -1001,20 +1025,9 @@ public class OrigamiScriptTerminalV1 implements OrigamiScriptTerminal {
 			history.add("version 1 filename [" + filename + "] open");
 			if (filename != null) {
 
-				java.util.ArrayList<Byte> bytesb = new java.util.ArrayList<>();
-				java.io.FileInputStream fis = new java.io.FileInputStream(new java.io.File(filename));
-				int nxb;
-				while ((nxb = fis.read()) != -1) {
-					bytesb.add((byte) nxb);
-				}
-				fis.close();
-				byte[] bytes = new byte[bytesb.size()];
-				for (int i = 0; i < bytesb.size(); i++) {
-					bytes[i] = bytesb.get(i);
-				}
 				paperColor = default_paper_color;
 				int[] rgb = { (paperColor >>> 16) & 0xFF, (paperColor >>> 8) & 0xFF, paperColor & 0xFF };
-				TerminalOrigami = OrigamiIO.read_gen2(new java.io.ByteArrayInputStream(bytes), rgb);
+				TerminalOrigami = OrigamiIO.read_gen2(new java.io.File(filename), rgb);
 				paperColor = rgb[0] * 0x10000 + rgb[1] * 0x100 + rgb[2];
 			}
 			else {
@@ -1050,7 +1063,16 @@ public class OrigamiScriptTerminalV1 implements OrigamiScriptTerminal {
 			throw OrigamiException.H011;
 		}
 		if (filename != null) {
-			Export.exportCTM(TerminalOrigami, filename, paperTexture);
+
+			final Origami origami = TerminalOrigami.snapshot();
+			final String fname = filename;
+			final java.awt.image.BufferedImage texture = paperTexture;
+			export("CTM", filename, new ExportQueue.Task() {
+				@Override
+				public void run(Export.Progress progress) throws Exception {
+					Export.exportCTM(origami, fname, texture, progress);
+				}
+			});
 		}
 		else {
 			throw OrigamiException.H010;
@@ -1065,7 +1087,16 @@ public class OrigamiScriptTerminalV1 implements OrigamiScriptTerminal {
 			throw OrigamiException.H011;
 		}
 		if (filename != null && title != null) {
-			Export.exportPDF(TerminalOrigami, filename, title);
+
+			final Origami origami = TerminalOrigami.snapshot();
+			final String fname = filename;
+			final String ftitle = title;
+			export("PDF", filename, new ExportQueue.Task() {
+				@Override
+				public void run(Export.Progress progress) throws Exception {
+					Export.exportPDF(origami, fname, ftitle, progress);
+				}
+			});
 		}
 		else {
 			throw OrigamiException.H010;
@@ -1080,7 +1111,17 @@ public class OrigamiScriptTerminalV1 implements OrigamiScriptTerminal {
 			throw OrigamiException.H011;
 		}
 		if (filename != null) {
-			Export.exportGIF(TerminalOrigami, TerminalCamera, paperColor, 250, 250, filename);
+
+			final Origami origami = TerminalOrigami.snapshot();
+			final Camera camera = new Camera(TerminalCamera);
+			final int color = paperColor;
+			final String fname = filename;
+			export("GIF", filename, new ExportQueue.Task() {
+				@Override
+				public void run(Export.Progress progress) throws Exception {
+					Export.exportGIF(origami, camera, color, 250, 250, fname, progress);
+				}
+			});
 		}
 		else {
 			throw OrigamiException.H010;
@@ -1095,7 +1136,17 @@ public class OrigamiScriptTerminalV1 implements OrigamiScriptTerminal {
 			throw OrigamiException.H011;
 		}
 		if (filename != null) {
-			Export.exportRevolvingGIF(TerminalOrigami, TerminalCamera, paperColor, 250, 250, filename);
+
+			final Origami origami = TerminalOrigami.snapshot();
+			final Camera camera = new Camera(TerminalCamera);
+			final int color = paperColor;
+			final String fname = filename;
+			export("GIF", filename, new ExportQueue.Task() {
+				@Override
+				public void run(Export.Progress progress) throws Exception {
+					Export.exportRevolvingGIF(origami, camera, color, 250, 250, fname, progress);
+				}
+			});
 		}
 		else {
 			throw OrigamiException.H010;
@@ -1114,7 +1165,15 @@ public class OrigamiScriptTerminalV1 implements OrigamiScriptTerminal {
 			if (paperColor == default_paper_color) {
 				rgb = null;
 			}
-			Export.exportJAR(TerminalOrigami, filename, rgb);
+			final Origami origami = TerminalOrigami.snapshot();
+			final String fname = filename;
+			final int[] frgb = rgb;
+			export("JAR", filename, new ExportQueue.Task() {
+				@Override
+				public void run(Export.Progress progress) throws Exception {
+					Export.exportJAR(origami, fname, frgb, progress);
+				}
+			});
 		}
 		else {
 			throw OrigamiException.H010;
@@ -1129,7 +1188,15 @@ public class OrigamiScriptTerminalV1 implements OrigamiScriptTerminal {
 			throw OrigamiException.H011;
 		}
 		if (filename != null) {
-			Export.exportPNG(TerminalOrigami, filename);
+
+			final Origami origami = TerminalOrigami.snapshot();
+			final String fname = filename;
+			export("PNG", filename, new ExportQueue.Task() {
+				@Override
+				public void run(Export.Progress progress) throws Exception {
+					Export.exportPNG(origami, fname, progress);
+				}
+			});
 		}
 		else {
 			throw OrigamiException.H010;
@@ -1221,6 +1288,10 @@ public class OrigamiScriptTerminalV1 implements OrigamiScriptTerminal {
 
 		try {
 			for (int i = 0; i < szavak.length; i++) {
+				// Lets a cancelled task stop between two commands
+				if (Thread.currentThread().isInterrupted()) {
+					throw new InterruptedException();
+				}
 				if (!(szavak[i].contains("[") || szavak[i].contains("]"))) {
 					if (Commands.containsKey(szavak[i])) {
 						Commands.get(szavak[i]).execute();
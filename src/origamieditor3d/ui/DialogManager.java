@@ -4,11 +4,13 @@ import java.awt.Desktop;
 
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
 import origamieditor3d.resources.Constants;
 import origamieditor3d.resources.Dictionary;
 import java.net.URL;
+import java.net.URLConnection;
 import javax.imageio.ImageIO;
 import java.util.Scanner;
 import java.net.URI;
@@ -21,6 +23,8 @@ public class DialogManager {
     
     final private JFileChooser file_dialog;
     
+    final static public int update_timeout = 3000;
+    
     public DialogManager(OrigamiEditorUI ui) {
         
         associated_ui = ui;
@@ -111,50 +115,109 @@ public class DialogManager {
         return null;
     }
     
-    public void lookForUpdate() {
+    /**
+     * Looks for a newer version on a background thread, using
+     * {@link Constants#INFO_LINK} and {@link #update_timeout}.
+     */
+    public Thread lookForUpdate() {
+        return lookForUpdate(Constants.INFO_LINK, update_timeout);
+    }
+    
+    /**
+     * Looks for a newer version on a background thread, and offers to
+     * download it on the event dispatch thread if there is one. If the info
+     * file cannot be read within the given time, nothing happens.
+     * 
+     * @param info_link The URL of the info file.
+     * @param timeout The connect and read timeout in milliseconds.
+     * @return The thread doing the check.
+     */
+    public Thread lookForUpdate(final String info_link, final int timeout) {
+        
+        Thread probe = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                
+                final String[] info = readUpdateInfo(info_link, timeout);
+                if (info != null && !Constants.VERSION.equals(info[0])) {
+                    
+                    SwingUtilities.invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            offerUpdate(info[1]);
+                        }
+                    });
+                }
+            }
+        }, "Update check");
+        probe.setDaemon(true);
+        probe.start();
+        return probe;
+    }
+    
+    /**
+     * Reads the latest version number and the download link from an info file.
+     * 
+     * @return The two values in this order, or {@code null} if the file could
+     *         not be read or does not contain a version number. The download
+     *         link may be {@code null}.
+     */
+    public static String[] readUpdateInfo(String info_link, int timeout) {
         
         try {
             
-            Scanner inf = new Scanner(
-                    new URL(Constants.INFO_LINK).openStream());
-            String line;
-            while (!(line = inf.nextLine().replace(" ", "")).startsWith("latest_version="))
-                ;
-            String ver = line.substring(line.indexOf("\"") + 1, line.lastIndexOf("\""));
-            
-            if (!Constants.VERSION.equals(ver)) {
+            URLConnection conn = new URL(info_link).openConnection();
+            conn.setConnectTimeout(timeout);
+            conn.setReadTimeout(timeout);
+            try (Scanner inf = new Scanner(conn.getInputStream())) {
                 
-                Object[] options = { Dictionary.getString("yes"), Dictionary.getString("no") };
-                if (JOptionPane.showOptionDialog(associated_ui, Dictionary.getString("update"),
-                        Dictionary.getString("question"), javax.swing.JOptionPane.YES_NO_OPTION,
-                        javax.swing.JOptionPane.QUESTION_MESSAGE, null, options,
-                        options[0]) == javax.swing.JOptionPane.YES_OPTION) {
-                    
-                    inf.reset();
-                    while (!(line = inf.nextLine().replace(" ", "")).startsWith("download_link="))
-                        ;
-                    String dl_url = line.substring(line.indexOf("\"") + 1, line.lastIndexOf("\""));
+                String ver = null, dl_url = null;
+                while (inf.hasNextLine()) {
                     
-                    if (Desktop.isDesktopSupported() 
-                            ? Desktop.getDesktop().isSupported(Desktop.Action.BROWSE)
-                            : false) {
-                        
-                        Desktop.getDesktop().browse(new URI(dl_url));
-                        System.exit(0);
+                    String line = inf.nextLine().replace(" ", "");
+                    if (line.startsWith("latest_version=") && ver == null) {
+                        ver = line.substring(line.indexOf("\"") + 1, line.lastIndexOf("\""));
                     }
-                    else {
-                        
-                        JTextArea copyable =
-                                new JTextArea(Dictionary.getString("browser-fail", dl_url));
-                        copyable.setEditable(false);
-                        JOptionPane.showMessageDialog(
-                                associated_ui, copyable, Dictionary.getString("error"), JOptionPane.ERROR_MESSAGE);
+                    else if (line.startsWith("download_link=") && dl_url == null) {
+                        dl_url = line.substring(line.indexOf("\"") + 1, line.lastIndexOf("\""));
                     }
                 }
+                return ver == null ? null : new String[] { ver, dl_url };
             }
-            inf.close();
         }
         catch (Exception ex) {
+            return null;
+        }
+    }
+    
+    private void offerUpdate(String dl_url) {
+        
+        Object[] options = { Dictionary.getString("yes"), Dictionary.getString("no") };
+        if (dl_url != null && JOptionPane.showOptionDialog(associated_ui, Dictionary.getString("update"),
+                Dictionary.getString("question"), javax.swing.JOptionPane.YES_NO_OPTION,
+                javax.swing.JOptionPane.QUESTION_MESSAGE, null, options,
+                options[0]) == javax.swing.JOptionPane.YES_OPTION) {
+            
+            try {
+                
+                if (Desktop.isDesktopSupported() 
+                        ? Desktop.getDesktop().isSupported(Desktop.Action.BROWSE)
+                        : false) {
+                    
+                    Desktop.getDesktop().browse(new URI(dl_url));
+                    System.exit(0);
+                }
+                else {
+                    
+                    JTextArea copyable =
+                            new JTextArea(Dictionary.getString("browser-fail", dl_url));
+                    copyable.setEditable(false);
+                    JOptionPane.showMessageDialog(
+                            associated_ui, copyable, Dictionary.getString("error"), JOptionPane.ERROR_MESSAGE);
+                }
+            }
+            catch (Exception ex) {
+            }
         }
     }
 }
@@ -0,0 +1,177 @@
+package origamieditor3d.ui;
+
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+
+import javax.swing.JTextArea;
+import javax.swing.Timer;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Element;
+
+/**
+ * An {@link OutputStream} that appends the lines written to it to a
+ * {@link JTextArea}. Writing never touches the text area; complete lines are
+ * collected in a bounded ring buffer, and are appended in one batch on the
+ * event dispatch thread every {@link #flush_interval} milliseconds. If more
+ * lines arrive in the meantime than the text area may hold, the oldest ones are
+ * dropped. The text area is trimmed to the line limit after each batch.
+ *
+ * @since 2026-10-19
+ */
+public class LogAppender extends OutputStream {
+
+	final static public int default_line_limit = 5000;
+	final static public int flush_interval = 100;
+
+	private final JTextArea area;
+	private final Timer timer;
+	private final ByteArrayOutputStream line;
+
+	private String[] ring;
+	private int head, count;
+	private int dropped;
+
+	public LogAppender(JTextArea area) {
+		this(area, default_line_limit);
+	}
+
+	/**
+	 * @param line_limit
+	 *            The maximum number of lines kept in the text area.
+	 */
+	public LogAppender(JTextArea area, int line_limit) {
+
+		this.area = area;
+		line = new ByteArrayOutputStream();
+		ring = new String[Math.max(line_limit, 1)];
+		timer = new Timer(flush_interval, new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent evt) {
+				publish();
+			}
+		});
+		timer.setRepeats(false);
+	}
+
+	@Override
+	public synchronized void write(int b) {
+
+		line.write(b);
+		if (b == 10) {
+			endLine();
+		}
+	}
+
+	@Override
+	public synchronized void write(byte[] b, int off, int len) {
+
+		int start = off;
+		for (int i = off; i < off + len; i++) {
+			if (b[i] == 10) {
+
+				line.write(b, start, i + 1 - start);
+				endLine();
+				start = i + 1;
+			}
+		}
+		line.write(b, start, off + len - start);
+	}
+
+	private void endLine() {
+
+		if (count == ring.length) {
+
+			head = (head + 1) % ring.length;
+			count--;
+			dropped++;
+		}
+		ring[(head + count) % ring.length] = line.toString();
+		count++;
+		line.reset();
+		if (!timer.isRunning()) {
+			timer.start();
+		}
+	}
+
+	/**
+	 * Changes the maximum number of lines kept in the text area. Takes effect
+	 * with the next batch.
+	 */
+	public synchronized void setLineLimit(int line_limit) {
+
+		String[] pending = drain();
+		ring = new String[Math.max(line_limit, 1)];
+		head = count = 0;
+		for (int i = Math.max(pending.length - ring.length, 0); i < pending.length; i++) {
+			ring[count++] = pending[i];
+		}
+	}
+
+	public synchronized int getLineLimit() {
+		return ring.length;
+	}
+
+	/**
+	 * Discards the lines not yet appended, and empties the text area. Must be
+	 * called on the event dispatch thread.
+	 */
+	public void clear() {
+
+		synchronized (this) {
+
+			drain();
+			dropped = 0;
+		}
+		area.setText("");
+	}
+
+	private String[] drain() {
+
+		String[] pending = new String[count];
+		for (int i = 0; i < count; i++) {
+
+			pending[i] = ring[(head + i) % ring.length];
+			ring[(head + i) % ring.length] = null;
+		}
+		head = count = 0;
+		return pending;
+	}
+
+	private void publish() {
+
+		String[] pending;
+		int skipped, limit;
+		synchronized (this) {
+
+			pending = drain();
+			skipped = dropped;
+			dropped = 0;
+			limit = ring.length;
+		}
+		if (pending.length == 0) {
+			return;
+		}
+
+		StringBuilder batch = new StringBuilder();
+		if (skipped > 0) {
+			batch.append("... ").append(skipped).append(" lines skipped ...").append((char) 10);
+		}
+		for (String str : pending) {
+			batch.append(str);
+		}
+		area.append(batch.toString());
+
+		// The last line is the empty one after the final line break
+		Element root = area.getDocument().getDefaultRootElement();
+		int excess = root.getElementCount() - 1 - limit;
+		if (excess > 0) {
+			try {
+				area.getDocument().remove(0, root.getElement(excess - 1).getEndOffset());
+			}
+			catch (BadLocationException ex) {
+			}
+		}
+	}
+}
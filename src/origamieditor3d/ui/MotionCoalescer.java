@@ -0,0 +1,109 @@
+package origamieditor3d.ui;
+
+import java.awt.DisplayMode;
+import java.awt.GraphicsEnvironment;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseMotionListener;
+
+import javax.swing.Timer;
+
+/**
+ * A {@link MouseMotionListener} that forwards mouse motion events to another
+ * one at most once per display refresh interval. Events arriving in between
+ * are merged, and only the most recent one is forwarded when the interval is
+ * over, so the final pointer position is never lost. <br>
+ * Other mouse events on the same component should call {@link #flush()}
+ * first, so that they are not handled before the motion preceding them.
+ *
+ * @since 2026-10-19
+ */
+public class MotionCoalescer implements MouseMotionListener {
+
+	final static public int default_refresh_rate = 60;
+
+	private final MouseMotionListener target;
+	private final int interval;
+	private final Timer timer;
+	private MouseEvent latest;
+	private long last_dispatch;
+
+	public MotionCoalescer(MouseMotionListener target) {
+
+		this.target = target;
+		interval = 1000 / refreshRate();
+		timer = new Timer(interval, new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent evt) {
+				flush();
+			}
+		});
+		timer.setRepeats(false);
+	}
+
+	private static int refreshRate() {
+
+		try {
+			int rate = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode()
+					.getRefreshRate();
+			if (rate != DisplayMode.REFRESH_RATE_UNKNOWN && rate > 0) {
+				return rate;
+			}
+		}
+		catch (Exception ex) {
+		}
+		return default_refresh_rate;
+	}
+
+	@Override
+	public void mouseMoved(MouseEvent evt) {
+		offer(evt);
+	}
+
+	@Override
+	public void mouseDragged(MouseEvent evt) {
+		offer(evt);
+	}
+
+	private void offer(MouseEvent evt) {
+
+		// Moving and dragging are not merged with each other
+		if (latest != null && latest.getID() != evt.getID()) {
+			flush();
+		}
+		latest = evt;
+
+		if (!timer.isRunning()) {
+
+			long elapsed = System.currentTimeMillis() - last_dispatch;
+			if (elapsed >= interval) {
+				flush();
+			}
+			else {
+				timer.setInitialDelay((int) (interval - elapsed));
+				timer.start();
+			}
+		}
+	}
+
+	/**
+	 * Forwards the pending motion event, if there is one, right away.
+	 */
+	public void flush() {
+
+		timer.stop();
+		if (latest == null) {
+			return;
+		}
+		MouseEvent evt = latest;
+		latest = null;
+		last_dispatch = System.currentTimeMillis();
+		if (evt.getID() == MouseEvent.MOUSE_DRAGGED) {
+			target.mouseDragged(evt);
+		}
+		else {
+			target.mouseMoved(evt);
+		}
+	}
+}
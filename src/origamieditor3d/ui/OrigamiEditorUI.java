@@ -1,6 +1,7 @@
 package origamieditor3d.ui;
 
 import java.awt.BorderLayout;
+import java.awt.Component;
 import java.awt.Color;
 import java.awt.Desktop;
 import java.awt.Dimension;
@@ -22,21 +23,26 @@ import java.awt.event.MouseWheelListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.OutputStream;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.net.URI;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Scanner;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
+import javax.swing.AbstractButton;
 import javax.swing.BorderFactory;
+import javax.swing.BoxLayout;
 import javax.swing.ImageIcon;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
@@ -52,6 +58,7 @@ import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JPopupMenu;
+import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
 import javax.swing.JSeparator;
 import javax.swing.JSlider;
@@ -64,7 +71,6 @@ import javax.swing.JToolBar;
 import javax.swing.JToolBar.Separator;
 import javax.swing.KeyStroke;
 import javax.swing.SwingUtilities;
-import javax.swing.SwingWorker;
 import javax.swing.ToolTipManager;
 import javax.swing.UIManager;
 import javax.swing.border.LineBorder;
@@ -72,10 +78,18 @@ import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 import javax.swing.event.HyperlinkEvent;
 import javax.swing.event.HyperlinkListener;
+import javax.swing.event.MenuEvent;
+import javax.swing.event.MenuListener;
 
 import origamieditor3d.graphics.Camera;
+import origamieditor3d.graphics.SnapGrid;
+import origamieditor3d.io.ExportQueue;
+import origamieditor3d.io.OriIndex;
+import origamieditor3d.io.OriInfo;
 import origamieditor3d.io.OrigamiIO;
+import origamieditor3d.origami.Origami;
 import origamieditor3d.origami.OrigamiGen1;
+import origamieditor3d.origami.TimelineCache;
 import origamieditor3d.resources.BaseModels;
 import origamieditor3d.resources.Constants;
 import origamieditor3d.resources.Dictionary;
@@ -110,6 +124,9 @@ public class OrigamiEditorUI extends JFrame {
 	private boolean alwaysInMiddle;
 	private boolean neusisOn;
 	private int foldNumber;
+	private int timelineValue;
+	private boolean timelineScrubbed;
+	private TimelineCache timelineCache;
 	private String filepath;
 
 	private boolean save_paper_color;
@@ -119,11 +136,65 @@ public class OrigamiEditorUI extends JFrame {
 	private boolean changeListenerShutUp;
 
 	private int snap2, snap3, snap4;
+	private SnapGrid snapGrid, flatSnapGrid;
+
+	final static private int terminal_log_limit = 5000;
+	private LogAppender terminal_log_appender;
+
+	private ExportQueue exportQueue;
+	private OriIndex modelIndex;
+	private JDialog exportProgress;
+	final private Map<ExportQueue.Job, JProgressBar> exportBars = new LinkedHashMap<>();
+
+	final static private int model_progress_delay = 300;
+	final private ExecutorService modelWorker;
+	final private List<ModelJob> modelJobs = new ArrayList<>();
+	private Origami modelBackup;
+	private List<String> modelBackupHistory;
+	private boolean modelCancelling;
+	private JDialog modelProgress;
+	final private javax.swing.Timer modelProgressTimer = new javax.swing.Timer(model_progress_delay,
+			new ActionListener() {
+				@Override
+				public void actionPerformed(ActionEvent evt) {
+					showModelProgress();
+				}
+			});
 	private boolean targetOn;
 
 	private JFrame ui_options;
 	private JPopupMenu ui_foldingops;
 
+	/**
+	 * Called on the event dispatch thread when a job submitted to the model
+	 * worker has finished and its result is published.
+	 */
+	private interface ModelJobListener {
+
+		/**
+		 * @param ex
+		 *            The exception the job has thrown, or {@code null} if it
+		 *            has succeeded.
+		 */
+		void jobFinished(Exception ex);
+	}
+
+	private static class ModelJob {
+
+		final String[] commands;
+		final OrigamiScriptTerminal.AccessMode access;
+		final ModelJobListener listener;
+		Future<?> future;
+		Exception error;
+
+		ModelJob(String[] commands, OrigamiScriptTerminal.AccessMode access, ModelJobListener listener) {
+
+			this.commands = commands;
+			this.access = access;
+			this.listener = listener;
+		}
+	}
+
 	private enum ControlState {
 
 		STANDBY, RULER1, RULER2, RULER_ROT, TRI0, TRI1, TRI2, TRI3, TRI_ROT, PLANETHRU, ANGLE_BISECT
@@ -137,8 +208,38 @@ public class OrigamiEditorUI extends JFrame {
 		// Initialize terminal and dialog manager
 		terminal1 = new OrigamiScriptTerminalV1(OrigamiScriptTerminal.AccessMode.USER);
 		dialogManager1 = new DialogManager(this);
+		modelWorker = newModelWorker();
+		modelProgressTimer.setRepeats(false);
+		exportQueue = new ExportQueue(new ExportQueue.Listener() {
+			@Override
+			public void jobChanged(final ExportQueue.Job job) {
+
+				// The job may have moved on by the time this is handled
+				final ExportQueue.State state = job.getState();
+				final int done = job.getDone();
+				final int total = job.getTotal();
+				SwingUtilities.invokeLater(new Runnable() {
+					@Override
+					public void run() {
+						exportJobChanged(job, state, done, total);
+					}
+				});
+			}
+		});
+		terminal1.setExportQueue(exportQueue);
+		timelineCache = new TimelineCache(new Runnable() {
+			@Override
+			public void run() {
+				SwingUtilities.invokeLater(new Runnable() {
+					@Override
+					public void run() {
+						showTimelineFrame();
+					}
+				});
+			}
+		});
 
-		// Look for an update
+		// Look for an update in the background
 		dialogManager1.lookForUpdate();
 
 		// Initialize UI
@@ -151,150 +252,45 @@ public class OrigamiEditorUI extends JFrame {
 		setLocationRelativeTo(null);
 
 		// Redirect standard output to the terminal log
-		OutputStream sysout = new OutputStream() {
-
-			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		terminal_log_appender = new LogAppender(terminal_log, terminal_log_limit);
+		System.setOut(new PrintStream(terminal_log_appender));
 
+		// The base and example model entries are loaded when first needed
+		ui_file_new_bases.addMenuListener(new MenuListener() {
 			@Override
-			public void write(int ch) {
-
-				bytes.write(ch);
-				if (ch == 10) {
+			public void menuSelected(MenuEvent evt) {
 
-					terminal_log.append(bytes.toString());
-					bytes.reset();
+				if (ui_file_new_bases.getItemCount() == 0) {
+					loadBaseModels();
 				}
 			}
-		};
-		System.setOut(new PrintStream(sysout));
-
-		// Load base model entries into the menu
-		final BaseModels bases = new BaseModels();
-		final ArrayList<String> basenames = bases.names();
-		for (int i = 0; i < basenames.size(); i++) {
-
-			final int ind = i;
-			final JMenuItem baseitem = new JMenuItem(Dictionary.getString(basenames.get(i)));
-			baseitem.addActionListener(new ActionListener() {
-				@Override
-				public void actionPerformed(ActionEvent evt) {
-
-					if (!saved) {
-						if (!dialogManager1.canICloseFile()) {
-							return;
-						}
-					}
-					filepath = null;
-					try (java.io.InputStream fis = bases.getFile(basenames.get(ind))) {
-
-						ArrayList<Byte> bytesb = new ArrayList<>();
-						int fisbyte;
-						while ((fisbyte = fis.read()) != -1) {
-							bytesb.add((byte) fisbyte);
-						}
-						byte[] bytes = new byte[bytesb.size()];
-						for (int i = 0; i < bytesb.size(); i++) {
-							bytes[i] = bytesb.get(i);
-						}
-
-						terminal1.TerminalOrigami = OrigamiIO.read_gen2(new ByteArrayInputStream(bytes), null);
-						terminal1.clearHistory();
 
-						oPanel1.update(terminal1.TerminalOrigami);
-						pPanel1.update(terminal1.TerminalOrigami);
-
-						oPanel1.panelCamera().unadjust(terminal1.TerminalOrigami);
-						oPanel1.resetZoom();
-						pPanel1.panelCamera().unadjust(terminal1.TerminalOrigami);
-						pPanel1.resetZoom();
-						if (alwaysInMiddle) {
-							oPanel1.panelCamera().adjust(terminal1.TerminalOrigami);
-						}
-						oPanel1.randomizeFrontColor();
-						oPanel1.panelCamera().setOrthogonalView(0);
-						rotation_angle = 0;
-						defaultify();
-						saved = true;
-						setTitle("Origami Editor 3D");
-					}
-					catch (Exception ex) {
-						JOptionPane.showMessageDialog(OrigamiEditorUI.this, Dictionary.getString("h005"));
-					}
-					foldNumber = terminal1.TerminalOrigami.getHistoryPointer();
-					changeListenerShutUp = true;
-					timeSlider.setMaximum(terminal1.TerminalOrigami.getHistory().size());
-					changeListenerShutUp = false;
-					timeSlider.setValue(terminal1.TerminalOrigami.getHistoryPointer());
-				}
-			});
-			ui_file_new_bases.add(baseitem);
-		}
+			@Override
+			public void menuDeselected(MenuEvent evt) {
+			}
 
-		// Load example model entries into the menu
+			@Override
+			public void menuCanceled(MenuEvent evt) {
+			}
+		});
 		ui_file_example.getPopupMenu().setLayout(new GridLayout(0, 2));
-		final ExampleModels examples = new ExampleModels();
-		final ArrayList<String> modnames = examples.names();
-		for (int i = 0; i < modnames.size(); i++) {
-			final int ind = i;
-			final JMenuItem modelitem = new JMenuItem(Dictionary.getString(modnames.get(i)));
-			modelitem.addActionListener(new ActionListener() {
-				@Override
-				public void actionPerformed(ActionEvent evt) {
-
-					if (!saved) {
-						if (!dialogManager1.canICloseFile()) {
-							return;
-						}
-					}
-					filepath = null;
-					try (java.io.InputStream fis = examples.getFile(modnames.get(ind))) {
-
-						ArrayList<Byte> bytesb = new ArrayList<>();
-						int fisbyte;
-						while ((fisbyte = fis.read()) != -1) {
-							bytesb.add((byte) fisbyte);
-						}
-						byte[] bytes = new byte[bytesb.size()];
-						for (int i = 0; i < bytesb.size(); i++) {
-							bytes[i] = bytesb.get(i);
-						}
-
-						int papercolor = oPanel1.getFrontColor();
-						int[] rgb = { (papercolor >>> 16) & 0xFF, (papercolor >>> 8) & 0xFF, papercolor & 0xFF };
-
-						terminal1.TerminalOrigami = OrigamiIO.read_gen2(new ByteArrayInputStream(bytes), rgb);
-						terminal1.clearHistory();
+		ui_file_example.addMenuListener(new MenuListener() {
+			@Override
+			public void menuSelected(MenuEvent evt) {
 
-						oPanel1.setFrontColor(rgb[0] * 0x10000 + rgb[1] * 0x100 + rgb[2]);
+				if (ui_file_example.getItemCount() == 0) {
+					loadExampleModels();
+				}
+			}
 
-						oPanel1.update(terminal1.TerminalOrigami);
-						pPanel1.update(terminal1.TerminalOrigami);
+			@Override
+			public void menuDeselected(MenuEvent evt) {
+			}
 
-						oPanel1.panelCamera().unadjust(terminal1.TerminalOrigami);
-						oPanel1.resetZoom();
-						pPanel1.panelCamera().unadjust(terminal1.TerminalOrigami);
-						pPanel1.resetZoom();
-						if (alwaysInMiddle) {
-							oPanel1.panelCamera().adjust(terminal1.TerminalOrigami);
-						}
-						oPanel1.panelCamera().setOrthogonalView(0);
-						rotation_angle = 0;
-						defaultify();
-						saved = true;
-						setTitle("Origami Editor 3D");
-					}
-					catch (Exception ex) {
-						JOptionPane.showMessageDialog(OrigamiEditorUI.this, Dictionary.getString("h005"));
-					}
-					foldNumber = terminal1.TerminalOrigami.getHistoryPointer();
-					changeListenerShutUp = true;
-					timeSlider.setMaximum(terminal1.TerminalOrigami.getHistory().size());
-					changeListenerShutUp = false;
-					timeSlider.setValue(terminal1.TerminalOrigami.getHistoryPointer());
-				}
-			});
-			ui_file_example.add(modelitem);
-		}
+			@Override
+			public void menuCanceled(MenuEvent evt) {
+			}
+		});
 
 		// Confirmation dialog on closing
 		addWindowListener(new WindowAdapter() {
@@ -430,6 +426,7 @@ public class OrigamiEditorUI extends JFrame {
 		ui_view_zoom.setText(Dictionary.getString("ui.view.zoom"));
 		ui_view_best.setText(Dictionary.getString("ui.view.best"));
 		ui_view_timeline.setText(Dictionary.getString("ui.view.timeline"));
+		ui_view_stats.setText(Dictionary.getString("ui.view.stats"));
 		ui_view_options.setText(Dictionary.getString("ui.view.options"));
 
 		ui_help.setText(Dictionary.getString("ui.help"));
@@ -532,6 +529,7 @@ public class OrigamiEditorUI extends JFrame {
 		jSeparator4 = new javax.swing.JPopupMenu.Separator();
 		ui_help_show = new JCheckBoxMenuItem();
 		ui_view_timeline = new JCheckBoxMenuItem();
+		ui_view_stats = new JCheckBoxMenuItem();
 		ui_view_options = new JMenuItem();
 		ui_help = new JMenu();
 		ui_help_user = new JMenuItem();
@@ -573,7 +571,8 @@ public class OrigamiEditorUI extends JFrame {
 		oPanel1.setBackground(new Color(255, 255, 255));
 		oPanel1.setBorder(BorderFactory.createTitledBorder("3D View"));
 		oPanel1.setPreferredSize(new Dimension(400, 400));
-		oPanel1.addMouseMotionListener(new MouseMotionAdapter() {
+		// Snapping and repainting once per display refresh is enough
+		final MotionCoalescer oPanel1Motion = new MotionCoalescer(new MouseMotionAdapter() {
 			@Override
 			public void mouseMoved(MouseEvent evt) {
 				oPanel1MouseMoved(evt);
@@ -584,6 +583,7 @@ public class OrigamiEditorUI extends JFrame {
 				oPanel1MouseDragged(evt);
 			}
 		});
+		oPanel1.addMouseMotionListener(oPanel1Motion);
 		oPanel1.addMouseWheelListener(new MouseWheelListener() {
 			@Override
 			public void mouseWheelMoved(MouseWheelEvent evt) {
@@ -593,11 +593,22 @@ public class OrigamiEditorUI extends JFrame {
 		oPanel1.addMouseListener(new MouseAdapter() {
 			@Override
 			public void mousePressed(MouseEvent evt) {
+
+				oPanel1Motion.flush();
 				oPanel1MousePressed(evt);
 			}
 
+			@Override
+			public void mouseReleased(MouseEvent evt) {
+
+				oPanel1Motion.flush();
+				oPanel1MouseReleased(evt);
+			}
+
 			@Override
 			public void mouseClicked(MouseEvent evt) {
+
+				oPanel1Motion.flush();
 				oPanel1MouseClicked(evt);
 			}
 		});
@@ -1186,6 +1197,15 @@ public class OrigamiEditorUI extends JFrame {
 		});
 		ui_view.add(ui_view_timeline);
 
+		ui_view_stats.setText("Performance overlay");
+		ui_view_stats.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent evt) {
+				ui_view_statsActionPerformed(evt);
+			}
+		});
+		ui_view.add(ui_view_stats);
+
 		ui_view_options.setText("Options");
 		ui_view_options.addActionListener(new ActionListener() {
 			@Override
@@ -1377,6 +1397,7 @@ public class OrigamiEditorUI extends JFrame {
 				|| EditorState == ControlState.TRI2 || EditorState == ControlState.TRI3) {
 
 			oPanel1.resetAlignmentPoint();
+			oPanel1.interactiveOn();
 			oPanel1.panelCamera().rotate((mouseDragX - evt.getX()) / (float) oPanel1.panelCamera().getZoom() / 2,
 					(evt.getY() - mouseDragY) / (float) oPanel1.panelCamera().getZoom() / 2);
 			oPanel1.repaint();
@@ -1385,6 +1406,12 @@ public class OrigamiEditorUI extends JFrame {
 		}
 	}// GEN-LAST:event_oPanel1MouseDragged
 
+	private void oPanel1MouseReleased(MouseEvent evt) {
+
+		// Render a full quality frame once dragging is over
+		oPanel1.interactiveOff();
+	}
+
 	//
 	// RESIZE / ÁTMÉRETEZÉS
 	//
@@ -1434,7 +1461,7 @@ public class OrigamiEditorUI extends JFrame {
 			else {
 
 				jTextField1.setText(null);
-				terminal_log.setText("");
+				terminal_log_appender.clear();
 				for (String sor : terminal1.getHistory()) {
 					System.out.println(sor);
 				}
@@ -1463,6 +1490,9 @@ public class OrigamiEditorUI extends JFrame {
 	//
 	private void pPanel1MouseClicked(MouseEvent evt) {// GEN-FIRST:event_pPanel1MouseClicked
 
+		if (isModelBusy()) {
+			return;
+		}
 		if (evt.getButton() != java.awt.event.MouseEvent.BUTTON1) {
 
 			if (targetOn) {
@@ -1594,97 +1624,27 @@ public class OrigamiEditorUI extends JFrame {
 	//
 	private void oPanel1MouseClicked(MouseEvent evt) {// GEN-FIRST:event_oPanel1MouseClicked
 
+		if (isModelBusy()) {
+			return;
+		}
 		if (evt.getButton() == java.awt.event.MouseEvent.BUTTON1) {
 
 			if (EditorState == ControlState.STANDBY || EditorState == ControlState.TRI0
 					|| EditorState == ControlState.TRI1 || EditorState == ControlState.TRI2
 					|| EditorState == ControlState.TRI3) {
 
-				oPanel1.resetZoom();
-				oPanel1.panelCamera().nextOrthogonalView();
-				oPanel1.repaint();
-			}
-			else if (EditorState == ControlState.RULER_ROT) {
-
-				try {
-
-					double[] rulerPT = oPanel1.getRulerPoint();
-					double[] rulerNV = oPanel1.getRulerNormalvector();
-					terminal1.executeWithTimeout(OrigamiScripter.plane(rulerPT, rulerNV));
-
-					if (pPanel1.isTracked()) {
-
-						double[] targ = pPanel1.panelCamera().deprojection((double) pPanel1.tracker_x(),
-								(double) pPanel1.tracker_y());
-
-						terminal1.executeWithTimeout(OrigamiScripter.target(targ));
-					}
-					terminal1.executeWithTimeout(OrigamiScripter.angle(rotation_angle));
-					terminal1.executeWithTimeout(OrigamiScripter.rotate());
-					oPanel1.update(terminal1.TerminalOrigami);
-				}
-				catch (Exception ex) {
-
-					oPanel1.update(terminal1.TerminalOrigami);
-					pPanel1.update(terminal1.TerminalOrigami);
-					JOptionPane.showMessageDialog(this, ex.getMessage().replace('/', (char) 10), "Error",
-							javax.swing.JOptionPane.ERROR_MESSAGE);
-				}
-				finally {
+				// Clicking the paper selects the target, clicking beside it turns the view
+				if (!(targetOn && EditorState == ControlState.STANDBY && pickTarget(evt.getX(), evt.getY()))) {
 
-					if (alwaysInMiddle) {
-						oPanel1.panelCamera().adjust(terminal1.TerminalOrigami);
-					}
-					rotation_angle = 0;
-					oPanel1.hideProtractor();
-					defaultify();
-					saved = false;
+					oPanel1.resetZoom();
+					oPanel1.panelCamera().nextOrthogonalView();
+					oPanel1.repaint();
 				}
 			}
-			else if (EditorState == ControlState.TRI_ROT) {
-
-				double[] p1 = pPanel1.panelCamera().deprojection((double) pPanel1.linerTriangle()[0][0],
-						(double) pPanel1.linerTriangle()[0][1]);
-				double[] p2 = pPanel1.panelCamera().deprojection((double) pPanel1.linerTriangle()[1][0],
-						(double) pPanel1.linerTriangle()[1][1]);
-				double[] p3 = pPanel1.panelCamera().deprojection((double) pPanel1.linerTriangle()[2][0],
-						(double) pPanel1.linerTriangle()[2][1]);
-
-				try {
-					if (SecondaryState == ControlState.PLANETHRU) {
-						terminal1.executeWithTimeout(OrigamiScripter.planethrough(p1, p2, p3));
-					}
-					if (SecondaryState == ControlState.ANGLE_BISECT) {
-						terminal1.executeWithTimeout(OrigamiScripter.angle_bisector(p1, p2, p3));
-					}
-					if (pPanel1.isTracked()) {
-
-						double[] targ = pPanel1.panelCamera().deprojection((double) pPanel1.tracker_x(),
-								(double) pPanel1.tracker_y());
-
-						terminal1.executeWithTimeout(OrigamiScripter.target(targ));
-					}
-					terminal1.executeWithTimeout(OrigamiScripter.angle(rotation_angle));
-					terminal1.executeWithTimeout(OrigamiScripter.rotate());
-					oPanel1.update(terminal1.TerminalOrigami);
-				}
-				catch (Exception ex) {
+			else if (EditorState == ControlState.RULER_ROT || EditorState == ControlState.TRI_ROT) {
 
-					oPanel1.update(terminal1.TerminalOrigami);
-					pPanel1.update(terminal1.TerminalOrigami);
-					JOptionPane.showMessageDialog(this, ex.getMessage().replace('/', (char) 10), "Error",
-							javax.swing.JOptionPane.ERROR_MESSAGE);
-				}
-				finally {
-
-					if (alwaysInMiddle) {
-						oPanel1.panelCamera().adjust(terminal1.TerminalOrigami);
-					}
-					rotation_angle = 0;
-					oPanel1.hideProtractor();
-					defaultify();
-					saved = false;
-				}
+				fold(OrigamiScripter.angle(rotation_angle), OrigamiScripter.rotate());
+				return;
 			}
 			else {
 				if (alwaysInMiddle) {
@@ -1739,40 +1699,48 @@ public class OrigamiEditorUI extends JFrame {
 
 	private void ui_foldingops_reflect_actionPerformed(ActionEvent evt) {
 
+		if (EditorState == ControlState.RULER2 || EditorState == ControlState.TRI3) {
+			fold(OrigamiScripter.reflect());
+		}
+	}
+
+	private void ui_foldingops_rotate_actionPerformed(ActionEvent evt) {
+
 		if (EditorState == ControlState.RULER2) {
 
-			try {
-				double[] rulerPT = oPanel1.getRulerPoint();
-				double[] rulerNV = oPanel1.getRulerNormalvector();
-				terminal1.executeWithTimeout(OrigamiScripter.plane(rulerPT, rulerNV));
+			EditorState = ControlState.RULER_ROT;
+			rotation_angle = 0;
+			oPanel1.displayProtractor(rotation_angle);
+			oPanel1.repaint();
+		}
+		else if (EditorState == ControlState.TRI3) {
 
-				if (pPanel1.isTracked()) {
+			EditorState = ControlState.TRI_ROT;
+			rotation_angle = 0;
+			oPanel1.displayProtractor(rotation_angle);
+			oPanel1.repaint();
+		}
+	}
 
-					double[] targ = pPanel1.panelCamera().deprojection((double) pPanel1.tracker_x(),
-							(double) pPanel1.tracker_y());
+	private void ui_foldingops_cut_actionPerformed(ActionEvent evt) {
 
-					terminal1.executeWithTimeout(OrigamiScripter.target(targ));
-				}
-				terminal1.executeWithTimeout(OrigamiScripter.reflect());
-				oPanel1.update(terminal1.TerminalOrigami);
-			}
-			catch (Exception ex) {
+		if (EditorState == ControlState.RULER2 || EditorState == ControlState.TRI3) {
+			fold(OrigamiScripter.cut());
+		}
+	}
 
-				oPanel1.update(terminal1.TerminalOrigami);
-				pPanel1.update(terminal1.TerminalOrigami);
-				JOptionPane.showMessageDialog(this, ex.getMessage().replace('/', (char) 10), "Error",
-						javax.swing.JOptionPane.ERROR_MESSAGE);
-			}
-			finally {
+	/**
+	 * Submits a fold along the current ruler or triangle to the model worker,
+	 * targeting the polygon selected in the paper panel, if any. The given
+	 * commands are appended after the folding plane and the target.
+	 */
+	private void fold(String... commands) {
 
-				if (alwaysInMiddle) {
-					oPanel1.panelCamera().adjust(terminal1.TerminalOrigami);
-				}
-				defaultify();
-				saved = false;
-			}
+		List<String> script = new ArrayList<>();
+		if (EditorState == ControlState.RULER2 || EditorState == ControlState.RULER_ROT) {
+			script.add(OrigamiScripter.plane(oPanel1.getRulerPoint(), oPanel1.getRulerNormalvector()));
 		}
-		else if (EditorState == ControlState.TRI3) {
+		else if (EditorState == ControlState.TRI3 || EditorState == ControlState.TRI_ROT) {
 
 			double[] p1 = pPanel1.panelCamera().deprojection((double) pPanel1.linerTriangle()[0][0],
 					(double) pPanel1.linerTriangle()[0][1]);
@@ -1781,154 +1749,70 @@ public class OrigamiEditorUI extends JFrame {
 			double[] p3 = pPanel1.panelCamera().deprojection((double) pPanel1.linerTriangle()[2][0],
 					(double) pPanel1.linerTriangle()[2][1]);
 
-			try {
-				if (SecondaryState == ControlState.PLANETHRU) {
-					terminal1.executeWithTimeout(OrigamiScripter.planethrough(p1, p2, p3));
-				}
-				if (SecondaryState == ControlState.ANGLE_BISECT) {
-					terminal1.executeWithTimeout(OrigamiScripter.angle_bisector(p1, p2, p3));
-				}
-				if (pPanel1.isTracked()) {
-
-					double[] targ = pPanel1.panelCamera().deprojection((double) pPanel1.tracker_x(),
-							(double) pPanel1.tracker_y());
-
-					terminal1.executeWithTimeout(OrigamiScripter.target(targ));
-				}
-				terminal1.executeWithTimeout(OrigamiScripter.reflect());
-				oPanel1.update(terminal1.TerminalOrigami);
-			}
-			catch (Exception ex) {
-
-				oPanel1.update(terminal1.TerminalOrigami);
-				pPanel1.update(terminal1.TerminalOrigami);
-				JOptionPane.showMessageDialog(this, ex.getMessage().replace('/', (char) 10), "Error",
-						javax.swing.JOptionPane.ERROR_MESSAGE);
+			if (SecondaryState == ControlState.PLANETHRU) {
+				script.add(OrigamiScripter.planethrough(p1, p2, p3));
 			}
-			finally {
-
-				if (alwaysInMiddle) {
-					oPanel1.panelCamera().adjust(terminal1.TerminalOrigami);
-				}
-				defaultify();
-				saved = false;
+			if (SecondaryState == ControlState.ANGLE_BISECT) {
+				script.add(OrigamiScripter.angle_bisector(p1, p2, p3));
 			}
 		}
+		if (pPanel1.isTracked()) {
 
-		foldNumber = terminal1.TerminalOrigami.getHistoryPointer();
-		changeListenerShutUp = true;
-		timeSlider.setMaximum(terminal1.TerminalOrigami.getHistory().size());
-		changeListenerShutUp = false;
-		timeSlider.setValue(terminal1.TerminalOrigami.getHistoryPointer());
-		if (alignOn) {
-			oPanel1.resetAlignmentPoint();
-		}
-	}
-
-	private void ui_foldingops_rotate_actionPerformed(ActionEvent evt) {
-
-		if (EditorState == ControlState.RULER2) {
+			double[] targ = pPanel1.panelCamera().deprojection((double) pPanel1.tracker_x(),
+					(double) pPanel1.tracker_y());
 
-			EditorState = ControlState.RULER_ROT;
-			rotation_angle = 0;
-			oPanel1.displayProtractor(rotation_angle);
-			oPanel1.repaint();
+			script.add(OrigamiScripter.target(targ));
 		}
-		else if (EditorState == ControlState.TRI3) {
-
-			EditorState = ControlState.TRI_ROT;
-			rotation_angle = 0;
-			oPanel1.displayProtractor(rotation_angle);
-			oPanel1.repaint();
+		for (String command : commands) {
+			script.add(command);
 		}
-	}
 
-	private void ui_foldingops_cut_actionPerformed(ActionEvent evt) {
-
-		if (EditorState == ControlState.RULER2) {
-
-			try {
-				double[] rulerPT = oPanel1.getRulerPoint();
-				double[] rulerNV = oPanel1.getRulerNormalvector();
-				terminal1.executeWithTimeout(OrigamiScripter.plane(rulerPT, rulerNV));
-
-				if (pPanel1.isTracked()) {
-
-					double[] targ = pPanel1.panelCamera().deprojection((double) pPanel1.tracker_x(),
-							(double) pPanel1.tracker_y());
+		runModelJob(new ModelJobListener() {
+			@Override
+			public void jobFinished(Exception ex) {
 
-					terminal1.executeWithTimeout(OrigamiScripter.target(targ));
+				if (ex != null) {
+					JOptionPane.showMessageDialog(OrigamiEditorUI.this, ex.getMessage().replace('/', (char) 10),
+							"Error", javax.swing.JOptionPane.ERROR_MESSAGE);
 				}
-				terminal1.executeWithTimeout(OrigamiScripter.cut());
-				oPanel1.update(terminal1.TerminalOrigami);
-			}
-			catch (Exception ex) {
-
-				oPanel1.update(terminal1.TerminalOrigami);
-				pPanel1.update(terminal1.TerminalOrigami);
-				JOptionPane.showMessageDialog(this, ex.getMessage().replace('/', (char) 10), "Error",
-						javax.swing.JOptionPane.ERROR_MESSAGE);
-			}
-			finally {
-
 				if (alwaysInMiddle) {
 					oPanel1.panelCamera().adjust(terminal1.TerminalOrigami);
 				}
+				rotation_angle = 0;
+				oPanel1.hideProtractor();
 				defaultify();
 				saved = false;
-			}
-		}
-		else if (EditorState == ControlState.TRI3) {
-
-			double[] p1 = pPanel1.panelCamera().deprojection((double) pPanel1.linerTriangle()[0][0],
-					(double) pPanel1.linerTriangle()[0][1]);
-			double[] p2 = pPanel1.panelCamera().deprojection((double) pPanel1.linerTriangle()[1][0],
-					(double) pPanel1.linerTriangle()[1][1]);
-			double[] p3 = pPanel1.panelCamera().deprojection((double) pPanel1.linerTriangle()[2][0],
-					(double) pPanel1.linerTriangle()[2][1]);
-
-			try {
-				if (SecondaryState == ControlState.PLANETHRU) {
-					terminal1.executeWithTimeout(OrigamiScripter.planethrough(p1, p2, p3));
-				}
-				if (SecondaryState == ControlState.ANGLE_BISECT) {
-					terminal1.executeWithTimeout(OrigamiScripter.angle_bisector(p1, p2, p3));
-				}
-				if (pPanel1.isTracked()) {
-
-					double[] targ = pPanel1.panelCamera().deprojection((double) pPanel1.tracker_x(),
-							(double) pPanel1.tracker_y());
-
-					terminal1.executeWithTimeout(OrigamiScripter.target(targ));
+				if (alignOn) {
+					oPanel1.resetAlignmentPoint();
 				}
-				terminal1.executeWithTimeout(OrigamiScripter.cut());
-				oPanel1.update(terminal1.TerminalOrigami);
 			}
-			catch (Exception ex) {
+		}, script.toArray(new String[script.size()]));
+	}
 
-				oPanel1.update(terminal1.TerminalOrigami);
-				pPanel1.update(terminal1.TerminalOrigami);
-				JOptionPane.showMessageDialog(this, ex.getMessage().replace('/', (char) 10), "Error",
-						javax.swing.JOptionPane.ERROR_MESSAGE);
-			}
-			finally {
+	/**
+	 * Selects the polygon shown at the specified point of the 3D view as the
+	 * target of the next fold, the same way as clicking it in the paper panel.
+	 *
+	 * @return {@code false} if there is no polygon at that point.
+	 */
+	private boolean pickTarget(int x, int y) {
 
-				if (alwaysInMiddle) {
-					oPanel1.panelCamera().adjust(terminal1.TerminalOrigami);
-				}
-				defaultify();
-				saved = false;
-			}
+		double[] paper = oPanel1.pickPaperPoint(x, y);
+		if (paper == null) {
+			return false;
 		}
+		Camera pcam = pPanel1.panelCamera();
+		double[] base = new Camera(pcam.getXShift(), pcam.getYShift(), pcam.getZoom())
+				.projection0(pcam.getCamPosition());
+		int px = (int) Math.round(paper[0] * pcam.getZoom() + pcam.getXShift() - base[0]);
+		int py = (int) Math.round(paper[1] * pcam.getZoom() + pcam.getYShift() - base[1]);
 
-		foldNumber = terminal1.TerminalOrigami.getHistoryPointer();
-		changeListenerShutUp = true;
-		timeSlider.setMaximum(terminal1.TerminalOrigami.getHistory().size());
-		changeListenerShutUp = false;
-		timeSlider.setValue(terminal1.TerminalOrigami.getHistoryPointer());
-		if (alignOn) {
-			oPanel1.resetAlignmentPoint();
-		}
+		pPanel1.setTracker(pcam, px, py);
+		oPanel1.setTracker(pcam, px, py);
+		pPanel1.repaint();
+		oPanel1.repaint();
+		pPanel1.setToolTipText(Dictionary.getString("tooltip.ppanel.unselect"));
+		return true;
 	}
 
 	//
@@ -1936,6 +1820,12 @@ public class OrigamiEditorUI extends JFrame {
 	//
 	private void oPanel1MouseMoved(MouseEvent evt) {// GEN-FIRST:event_oPanel1MouseMoved
 
+		if (isModelBusy()) {
+			return;
+		}
+		if (EditorState == ControlState.STANDBY && targetOn) {
+			oPanel1.setHoverPolygon(oPanel1.polygonAt(evt.getX(), evt.getY()));
+		}
 		if (EditorState == ControlState.STANDBY && alignOn) {
 
 			ruler1X = evt.getX();
@@ -1984,7 +1874,7 @@ public class OrigamiEditorUI extends JFrame {
 	//
 	private void ui_file_export_topdfActionPerformed(ActionEvent evt) {// GEN-FIRST:event_ui_file_export_topdfActionPerformed
 
-		final String fpath = dialogManager1.getSaveFilePath("pdf");
+		String fpath = dialogManager1.getSaveFilePath("pdf");
 		if (fpath != null) {
 
 			if (!new File(fpath).getName().matches("[\\w\\.]+")) {
@@ -1993,61 +1883,13 @@ public class OrigamiEditorUI extends JFrame {
 			}
 
 			try {
-
-				final JDialog exporting = new JDialog(this);
-				exporting.setUndecorated(true);
-				JLabel loadmsg = new JLabel(Dictionary.getString("message.info.exporting"));
-				loadmsg.setForeground(Color.RED);
-				exporting.getContentPane().setLayout(new BorderLayout());
-				exporting.getContentPane().add(loadmsg, java.awt.BorderLayout.CENTER);
-				exporting.getContentPane().setBackground(Color.YELLOW);
-				exporting.pack();
-				exporting.setResizable(false);
-				exporting.setLocationRelativeTo(null);
-				exporting.setVisible(true);
-
-				final Exception[] unreportedException = { null };
-
-				new SwingWorker<Void, Integer>() {
-
-					@Override
-					protected Void doInBackground() {
-
-						try {
-
-							terminal1.executeWithTimeout(
-									OrigamiScripter.title(new File(fpath).getName().replace(".pdf", "")));
-							terminal1.executeWithTimeout(OrigamiScripter.filename(fpath));
-							terminal1.executeWithTimeout(OrigamiScripter.export_autopdf(), OrigamiScriptTerminal.AccessMode.USER);
-
-							oPanel1.update(terminal1.TerminalOrigami);
-							pPanel1.update(terminal1.TerminalOrigami);
-							defaultify();
-							rotation_angle = 0;
-						}
-						catch (Exception ex) {
-
-							unreportedException[0] = ex;
-							exporting.setVisible(false);
-							exporting.dispose();
-						}
-						return null;
-					}
-
-					@Override
-					protected void done() {
-
-						exporting.setVisible(false);
-						exporting.dispose();
-						JOptionPane.showMessageDialog(OrigamiEditorUI.this,
-								Dictionary.getString("message.info.export_finished"), "Message",
-								javax.swing.JOptionPane.PLAIN_MESSAGE);
-					}
-				}.execute();
-
-				if (unreportedException[0] != null) {
-					throw unreportedException[0];
-				}
+				terminal1.executeWithTimeout(OrigamiScripter.title(new File(fpath).getName().replace(".pdf", "")));
+				terminal1.executeWithTimeout(OrigamiScripter.filename(fpath));
+				terminal1.executeWithTimeout(OrigamiScripter.export_autopdf(), OrigamiScriptTerminal.AccessMode.USER);
+				oPanel1.update(terminal1.TerminalOrigami);
+				pPanel1.update(terminal1.TerminalOrigami);
+				defaultify();
+				rotation_angle = 0;
 			}
 			catch (Exception ex) {
 				oPanel1.update(terminal1.TerminalOrigami);
@@ -2063,30 +1905,22 @@ public class OrigamiEditorUI extends JFrame {
 	//
 	private void ui_edit_undoActionPerformed(ActionEvent evt) {// GEN-FIRST:event_ui_edit_undoActionPerformed
 
-		try {
-			terminal1.executeWithTimeout(OrigamiScripter.undo());
-		}
-		catch (Exception exc) {
-		}
-
-		oPanel1.update(terminal1.TerminalOrigami);
-		pPanel1.update(terminal1.TerminalOrigami);
+		runModelJob(new ModelJobListener() {
+			@Override
+			public void jobFinished(Exception ex) {
 
-		oPanel1.panelCamera().unadjust(terminal1.TerminalOrigami);
-		oPanel1.resetZoom();
-		pPanel1.panelCamera().unadjust(terminal1.TerminalOrigami);
-		pPanel1.resetZoom();
-		if (alwaysInMiddle) {
-			oPanel1.panelCamera().adjust(terminal1.TerminalOrigami);
-		}
-		defaultify();
-		rotation_angle = 0;
-		saved = false;
-		foldNumber = terminal1.TerminalOrigami.getHistoryPointer();
-		changeListenerShutUp = true;
-		timeSlider.setMaximum(terminal1.TerminalOrigami.getHistory().size());
-		changeListenerShutUp = false;
-		timeSlider.setValue(terminal1.TerminalOrigami.getHistoryPointer());
+				oPanel1.panelCamera().unadjust(terminal1.TerminalOrigami);
+				oPanel1.resetZoom();
+				pPanel1.panelCamera().unadjust(terminal1.TerminalOrigami);
+				pPanel1.resetZoom();
+				if (alwaysInMiddle) {
+					oPanel1.panelCamera().adjust(terminal1.TerminalOrigami);
+				}
+				defaultify();
+				rotation_angle = 0;
+				saved = false;
+			}
+		}, OrigamiScripter.undo());
 	}// GEN-LAST:event_ui_edit_undoActionPerformed
 
 	//
@@ -2187,76 +2021,68 @@ public class OrigamiEditorUI extends JFrame {
 			}
 		}
 
-		String fpath = dialogManager1.getOpenFilePath("ori", "txt");
+		final String fpath = dialogManager1.getOpenFilePath("ori", "txt");
 
 		if (fpath != null) {
 
 			if (fpath.endsWith(".ori")) {
 
-				try {
-					terminal1.executeWithTimeout(OrigamiScripter.filename(fpath) + OrigamiScripter.open(),
-							OrigamiScriptTerminal.AccessMode.USER);
-					oPanel1.update(terminal1.TerminalOrigami);
-					pPanel1.update(terminal1.TerminalOrigami);
+				runModelJob(OrigamiScriptTerminal.AccessMode.USER, new ModelJobListener() {
+					@Override
+					public void jobFinished(Exception ex) {
 
-					oPanel1.setFrontColor(terminal1.getPaperColor());
-					oPanel1.panelCamera().unadjust(terminal1.TerminalOrigami);
-					oPanel1.resetZoom();
-					pPanel1.panelCamera().unadjust(terminal1.TerminalOrigami);
-					pPanel1.resetZoom();
-					if (alwaysInMiddle) {
-						oPanel1.panelCamera().adjust(terminal1.TerminalOrigami);
+						if (ex != null) {
+							JOptionPane.showMessageDialog(OrigamiEditorUI.this,
+									ex.getMessage().replace('/', (char) 10), "Error",
+									javax.swing.JOptionPane.ERROR_MESSAGE);
+							return;
+						}
+						oPanel1.setFrontColor(terminal1.getPaperColor());
+						oPanel1.panelCamera().unadjust(terminal1.TerminalOrigami);
+						oPanel1.resetZoom();
+						pPanel1.panelCamera().unadjust(terminal1.TerminalOrigami);
+						pPanel1.resetZoom();
+						if (alwaysInMiddle) {
+							oPanel1.panelCamera().adjust(terminal1.TerminalOrigami);
+						}
+						oPanel1.panelCamera().setOrthogonalView(0);
+						rotation_angle = 0;
+						defaultify();
+						filepath = fpath;
+						setTitle(new File(fpath).getName() + " - Origami Editor 3D");
+						saved = true;
 					}
-					oPanel1.panelCamera().setOrthogonalView(0);
-					rotation_angle = 0;
-					defaultify();
-					filepath = fpath;
-					setTitle(new File(fpath).getName() + " - Origami Editor 3D");
-					saved = true;
-				}
-				catch (Exception ex) {
-					oPanel1.update(terminal1.TerminalOrigami);
-					pPanel1.update(terminal1.TerminalOrigami);
-					JOptionPane.showMessageDialog(this, ex.getMessage().replace('/', (char) 10), "Error",
-							javax.swing.JOptionPane.ERROR_MESSAGE);
-				}
+				}, OrigamiScripter.filename(fpath) + OrigamiScripter.open());
 			}
 			else if (fpath.endsWith(".txt")) {
 
-				try {
-					terminal1.executeWithTimeout(OrigamiScripter.filename(fpath) + OrigamiScripter.load(),
-							OrigamiScriptTerminal.AccessMode.USER);
-
-					oPanel1.update(terminal1.TerminalOrigami);
-					pPanel1.update(terminal1.TerminalOrigami);
+				runModelJob(OrigamiScriptTerminal.AccessMode.USER, new ModelJobListener() {
+					@Override
+					public void jobFinished(Exception ex) {
 
-					oPanel1.panelCamera().unadjust(terminal1.TerminalOrigami);
-					oPanel1.resetZoom();
-					pPanel1.panelCamera().unadjust(terminal1.TerminalOrigami);
-					pPanel1.resetZoom();
-					if (alwaysInMiddle) {
-						oPanel1.panelCamera().adjust(terminal1.TerminalOrigami);
+						if (ex != null) {
+							ex.printStackTrace();
+							JOptionPane.showMessageDialog(OrigamiEditorUI.this,
+									ex.getMessage().replace('/', (char) 10), "Error",
+									javax.swing.JOptionPane.ERROR_MESSAGE);
+							return;
+						}
+						oPanel1.panelCamera().unadjust(terminal1.TerminalOrigami);
+						oPanel1.resetZoom();
+						pPanel1.panelCamera().unadjust(terminal1.TerminalOrigami);
+						pPanel1.resetZoom();
+						if (alwaysInMiddle) {
+							oPanel1.panelCamera().adjust(terminal1.TerminalOrigami);
+						}
+						oPanel1.panelCamera().setOrthogonalView(0);
+						rotation_angle = 0;
+						defaultify();
+						setTitle(new File(fpath) + " - Origami Editor 3D");
+						saved = true;
 					}
-					oPanel1.panelCamera().setOrthogonalView(0);
-					rotation_angle = 0;
-					defaultify();
-					setTitle(new File(fpath) + " - Origami Editor 3D");
-					saved = true;
-				}
-				catch (Exception ex) {
-					oPanel1.update(terminal1.TerminalOrigami);
-					pPanel1.update(terminal1.TerminalOrigami);
-					ex.printStackTrace();
-					JOptionPane.showMessageDialog(this, ex.getMessage().replace('/', (char) 10), "Error",
-							javax.swing.JOptionPane.ERROR_MESSAGE);
-				}
+				}, OrigamiScripter.filename(fpath) + OrigamiScripter.load());
 			}
 		}
-		foldNumber = terminal1.TerminalOrigami.getHistoryPointer();
-		changeListenerShutUp = true;
-		timeSlider.setMaximum(terminal1.TerminalOrigami.getHistory().size());
-		changeListenerShutUp = false;
-		timeSlider.setValue(terminal1.TerminalOrigami.getHistoryPointer());
 	}// GEN-LAST:event_ui_file_openActionPerformed
 
 	private void ui_edit_planeActionPerformed(ActionEvent evt) {// GEN-FIRST:event_ui_edit_planeActionPerformed
@@ -2268,43 +2094,35 @@ public class OrigamiEditorUI extends JFrame {
 	//
 	private void ui_edit_redoActionPerformed(ActionEvent evt) {// GEN-FIRST:event_ui_edit_redoActionPerformed
 
-		try {
+		runModelJob(new ModelJobListener() {
+			@Override
+			public void jobFinished(Exception ex) {
+
+				if (ex != null) {
+					JOptionPane.showMessageDialog(OrigamiEditorUI.this, ex.getMessage().replace('/', (char) 10),
+							"Error", javax.swing.JOptionPane.ERROR_MESSAGE);
+				}
+				if (alwaysInMiddle) {
+					oPanel1.panelCamera().adjust(terminal1.TerminalOrigami);
+				}
+				defaultify();
+				rotation_angle = 0;
+				saved = false;
+			}
+		}, terminal1.getHistory().isEmpty() ? new String[0] : new String[] { OrigamiScripter.redo() });
+	}// GEN-LAST:event_ui_edit_redoActionPerformed
+
+	//
+	// NEW HEXAGONAL PAPER / ÚJ PAPÍR (HATSZÖG)
+	//
+	private void ui_file_new_hexagonalActionPerformed(ActionEvent evt) {// GEN-FIRST:event_ui_file_new_hexagonalActionPerformed
 
-			if (!terminal1.getHistory().isEmpty()) {
-				terminal1.executeWithTimeout(OrigamiScripter.redo());
+		if (!saved) {
+			if (!dialogManager1.canICloseFile()) {
+				return;
 			}
 		}
-		catch (Exception ex) {
-
-			JOptionPane.showMessageDialog(this, ex.getMessage().replace('/', (char) 10), "Error",
-					javax.swing.JOptionPane.ERROR_MESSAGE);
-		}
-		if (alwaysInMiddle) {
-			oPanel1.panelCamera().adjust(terminal1.TerminalOrigami);
-		}
-		oPanel1.update(terminal1.TerminalOrigami);
-		pPanel1.update(terminal1.TerminalOrigami);
-		defaultify();
-		rotation_angle = 0;
-		saved = false;
-		foldNumber = terminal1.TerminalOrigami.getHistoryPointer();
-		changeListenerShutUp = true;
-		timeSlider.setMaximum(terminal1.TerminalOrigami.getHistory().size());
-		changeListenerShutUp = false;
-		timeSlider.setValue(terminal1.TerminalOrigami.getHistoryPointer());
-	}// GEN-LAST:event_ui_edit_redoActionPerformed
-
-	//
-	// NEW HEXAGONAL PAPER / ÚJ PAPÍR (HATSZÖG)
-	//
-	private void ui_file_new_hexagonalActionPerformed(ActionEvent evt) {// GEN-FIRST:event_ui_file_new_hexagonalActionPerformed
-
-		if (!saved) {
-			if (!dialogManager1.canICloseFile()) {
-				return;
-			}
-		}
-		try {
+		try {
 
 			filepath = null;
 			terminal1.executeWithTimeout(OrigamiScripter.paper("hexagon"));
@@ -2774,42 +2592,82 @@ public class OrigamiEditorUI extends JFrame {
 		}
 	}// GEN-LAST:event_ui_view_timelineActionPerformed
 
+	private void ui_view_statsActionPerformed(ActionEvent evt) {
+
+		oPanel1.setFrameStatsEnabled(ui_view_stats.isSelected());
+		pPanel1.setFrameStatsEnabled(ui_view_stats.isSelected());
+	}
+
 	//
 	// TIMELINE SLIDER / IDŐVONAL CSÚSZKA
 	//
 	private void timeSliderStateChanged(ChangeEvent evt) {
 
-		if (foldNumber == timeSlider.getValue() || changeListenerShutUp) {
+		int step = timeSlider.getValue();
+		int direction = Integer.signum(step - timelineValue);
+		timelineValue = step;
+		if ((foldNumber == step && !timelineScrubbed) || changeListenerShutUp) {
 			return;
 		}
-		if (terminal1.TerminalOrigami.getHistory().size() < 100) {
-			if (foldNumber < timeSlider.getValue()) {
-				terminal1.TerminalOrigami.redo(timeSlider.getValue() - foldNumber);
-			}
-			else {
-				terminal1.TerminalOrigami.undo(foldNumber - timeSlider.getValue());
+		Origami frame = step == foldNumber ? terminal1.TerminalOrigami
+				: timelineCache.request(terminal1.TerminalOrigami, step, direction);
+
+		if (timeSlider.getValueIsAdjusting()) {
+
+			// Only show the cached steps while scrubbing; the model is left alone
+			if (frame != null) {
+
+				timelineScrubbed = true;
+				oPanel1.update(frame);
+				if (alwaysInMiddle) {
+					oPanel1.panelCamera().adjust(frame);
+				}
 			}
-			foldNumber = timeSlider.getValue();
-			oPanel1.update(terminal1.TerminalOrigami);
+			defaultify();
+			return;
 		}
-		else { // Stop eating the CPU when it gets too complex
-			if (!timeSlider.getValueIsAdjusting()) {
-				if (foldNumber < timeSlider.getValue()) {
-					terminal1.TerminalOrigami.redo(timeSlider.getValue() - foldNumber);
-				}
-				else {
-					terminal1.TerminalOrigami.undo(foldNumber - timeSlider.getValue());
-				}
-				foldNumber = timeSlider.getValue();
-				oPanel1.update(terminal1.TerminalOrigami);
+
+		if (step != foldNumber) {
+
+			if (frame != null) {
+				terminal1.TerminalOrigami = frame.snapshot();
+			}
+			else if (foldNumber < step) {
+				terminal1.TerminalOrigami.redo(step - foldNumber);
 			}
+			else {
+				terminal1.TerminalOrigami.undo(foldNumber - step);
+			}
+			foldNumber = step;
 		}
+		timelineScrubbed = false;
+		oPanel1.update(terminal1.TerminalOrigami);
 		if (alwaysInMiddle) {
 			oPanel1.panelCamera().adjust(terminal1.TerminalOrigami);
 		}
 		defaultify();
 	}
 
+	private void showTimelineFrame() {
+
+		if (!timeSlider.getValueIsAdjusting() || isModelBusy()) {
+			return;
+		}
+		int step = timeSlider.getValue();
+		Origami frame = step == foldNumber ? terminal1.TerminalOrigami
+				: timelineCache.request(terminal1.TerminalOrigami, step, 0);
+		if (frame != null) {
+
+			timelineScrubbed = true;
+			oPanel1.update(frame);
+			if (alwaysInMiddle) {
+				oPanel1.panelCamera().adjust(frame);
+			}
+			oPanel1.repaint();
+		}
+	}
+
+
 	//
 	// USER GUIDE / FELHASZNÁLÓI KÉZIKÖNYV
 	//
@@ -2881,70 +2739,22 @@ public class OrigamiEditorUI extends JFrame {
 	//
 	private void ui_file_export_togif_revolvingActionPerformed(ActionEvent evt) {// GEN-FIRST:event_ui_file_export_togif_revolvingActionPerformed
 
-		final String fpath = dialogManager1.getSaveFilePath("gif");
+		String fpath = dialogManager1.getSaveFilePath("gif");
 
 		if (fpath != null) {
 
 			try {
-
-				final JDialog exporting = new JDialog(this);
-				exporting.setUndecorated(true);
-				JLabel loadmsg = new JLabel(Dictionary.getString("message.info.exporting"));
-				loadmsg.setForeground(Color.RED);
-				exporting.getContentPane().setLayout(new BorderLayout());
-				exporting.getContentPane().add(loadmsg, java.awt.BorderLayout.CENTER);
-				exporting.getContentPane().setBackground(Color.YELLOW);
-				exporting.pack();
-				exporting.setResizable(false);
-				exporting.setLocationRelativeTo(null);
-				exporting.setVisible(true);
-
-				final Exception[] unreportedException = { null };
-
-				new SwingWorker<Void, Integer>() {
-
-					@Override
-					protected Void doInBackground() {
-
-						try {
-
-							terminal1.executeWithTimeout(OrigamiScripter.camera(oPanel1.panelCamera().getCamDirection(),
-									oPanel1.panelCamera().getXScale(), oPanel1.panelCamera().getYScale()));
-							terminal1.executeWithTimeout(OrigamiScripter.color(oPanel1.getFrontColor()));
-							terminal1.executeWithTimeout(OrigamiScripter.filename(fpath) + OrigamiScripter.export_revolving_gif(),
-									OrigamiScriptTerminal.AccessMode.USER);
-
-							oPanel1.update(terminal1.TerminalOrigami);
-							pPanel1.update(terminal1.TerminalOrigami);
-							defaultify();
-							rotation_angle = 0;
-						}
-						catch (Exception ex) {
-
-							unreportedException[0] = ex;
-							exporting.setVisible(false);
-							exporting.dispose();
-						}
-						return null;
-					}
-
-					@Override
-					protected void done() {
-
-						exporting.setVisible(false);
-						exporting.dispose();
-						JOptionPane.showMessageDialog(OrigamiEditorUI.this,
-								Dictionary.getString("message.info.export_finished"), "Message",
-								javax.swing.JOptionPane.PLAIN_MESSAGE);
-					}
-				}.execute();
-
-				if (unreportedException[0] != null) {
-					throw unreportedException[0];
-				}
+				terminal1.executeWithTimeout(OrigamiScripter.camera(oPanel1.panelCamera().getCamDirection(),
+						oPanel1.panelCamera().getXScale(), oPanel1.panelCamera().getYScale()));
+				terminal1.executeWithTimeout(OrigamiScripter.color(oPanel1.getFrontColor()));
+				terminal1.executeWithTimeout(OrigamiScripter.filename(fpath) + OrigamiScripter.export_revolving_gif(),
+						OrigamiScriptTerminal.AccessMode.USER);
+				oPanel1.update(terminal1.TerminalOrigami);
+				pPanel1.update(terminal1.TerminalOrigami);
+				defaultify();
+				rotation_angle = 0;
 			}
 			catch (Exception ex) {
-
 				oPanel1.update(terminal1.TerminalOrigami);
 				pPanel1.update(terminal1.TerminalOrigami);
 				JOptionPane.showMessageDialog(this, ex.getMessage().replace('/', (char) 10), "Error",
@@ -2958,67 +2768,20 @@ public class OrigamiEditorUI extends JFrame {
 	//
 	private void ui_file_export_togif_foldingActionPerformed(ActionEvent evt) {// GEN-FIRST:event_ui_file_export_togif_foldingActionPerformed
 
-		final String fpath = dialogManager1.getSaveFilePath("gif");
+		String fpath = dialogManager1.getSaveFilePath("gif");
 
 		if (fpath != null) {
 
 			try {
-
-				final JDialog exporting = new JDialog(this);
-				exporting.setUndecorated(true);
-				JLabel loadmsg = new JLabel(Dictionary.getString("message.info.exporting"));
-				loadmsg.setForeground(Color.RED);
-				exporting.getContentPane().setLayout(new BorderLayout());
-				exporting.getContentPane().add(loadmsg, java.awt.BorderLayout.CENTER);
-				exporting.getContentPane().setBackground(Color.YELLOW);
-				exporting.pack();
-				exporting.setResizable(false);
-				exporting.setLocationRelativeTo(null);
-				exporting.setVisible(true);
-
-				final Exception[] unreportedException = { null };
-
-				new SwingWorker<Void, Integer>() {
-
-					@Override
-					protected Void doInBackground() {
-
-						try {
-
-							terminal1.executeWithTimeout(OrigamiScripter.camera(oPanel1.panelCamera().getCamDirection(),
-									oPanel1.panelCamera().getXScale(), oPanel1.panelCamera().getYScale()));
-							terminal1.executeWithTimeout(OrigamiScripter.color(oPanel1.getFrontColor()));
-							terminal1.executeWithTimeout(OrigamiScripter.filename(fpath) + OrigamiScripter.export_gif(),
-									OrigamiScriptTerminal.AccessMode.USER);
-
-							oPanel1.update(terminal1.TerminalOrigami);
-							pPanel1.update(terminal1.TerminalOrigami);
-							defaultify();
-							rotation_angle = 0;
-						}
-						catch (Exception ex) {
-
-							unreportedException[0] = ex;
-							exporting.setVisible(false);
-							exporting.dispose();
-						}
-						return null;
-					}
-
-					@Override
-					protected void done() {
-
-						exporting.setVisible(false);
-						exporting.dispose();
-						JOptionPane.showMessageDialog(OrigamiEditorUI.this,
-								Dictionary.getString("message.info.export_finished"), "Message",
-								javax.swing.JOptionPane.PLAIN_MESSAGE);
-					}
-				}.execute();
-
-				if (unreportedException[0] != null) {
-					throw unreportedException[0];
-				}
+				terminal1.executeWithTimeout(OrigamiScripter.camera(oPanel1.panelCamera().getCamDirection(),
+						oPanel1.panelCamera().getXScale(), oPanel1.panelCamera().getYScale()));
+				terminal1.executeWithTimeout(OrigamiScripter.color(oPanel1.getFrontColor()));
+				terminal1.executeWithTimeout(OrigamiScripter.filename(fpath) + OrigamiScripter.export_gif(),
+						OrigamiScriptTerminal.AccessMode.USER);
+				oPanel1.update(terminal1.TerminalOrigami);
+				pPanel1.update(terminal1.TerminalOrigami);
+				defaultify();
+				rotation_angle = 0;
 			}
 			catch (Exception ex) {
 				oPanel1.update(terminal1.TerminalOrigami);
@@ -3321,26 +3084,42 @@ public class OrigamiEditorUI extends JFrame {
 		}
 	}// GEN-LAST:event_ui_file_export_toselfActionPerformed
 
-	private boolean snap1(int radius) {
-
-		int v1ujX = -1;
-		int v1ujY = -1;
+	/**
+	 * Returns the index of the snap points of the 3D view, rebuilding it if the
+	 * model, the camera or the snap fineness has changed.
+	 */
+	private SnapGrid snapGrid() {
 
-		for (int[] osztohely : oPanel1.panelCamera().alignmentPoints(terminal1.TerminalOrigami, snap2, snap3, snap4)) {
+		int tag = snap2 * 100 + snap3 * 10 + snap4;
+		if (snapGrid == null || !snapGrid.isValidFor(terminal1.TerminalOrigami, oPanel1.panelCamera(), tag)) {
+			snapGrid = new SnapGrid(
+					oPanel1.panelCamera().alignmentPoints(terminal1.TerminalOrigami, snap2, snap3, snap4),
+					terminal1.TerminalOrigami, oPanel1.panelCamera(), tag);
+		}
+		return snapGrid;
+	}
 
-			if ((ruler1X - oPanel1.panelCamera().getXShift() - osztohely[0])
-					* (ruler1X - oPanel1.panelCamera().getXShift() - osztohely[0])
-					+ (ruler1Y - oPanel1.panelCamera().getYShift() - osztohely[1])
-							* (ruler1Y - oPanel1.panelCamera().getYShift() - osztohely[1]) < radius) {
+	/**
+	 * Returns the index of the snap points of the crease pattern, rebuilding it if
+	 * the model or the camera has changed.
+	 */
+	private SnapGrid flatSnapGrid() {
 
-				v1ujX = osztohely[0] + oPanel1.panelCamera().getXShift();
-				v1ujY = osztohely[1] + oPanel1.panelCamera().getYShift();
-				break;
-			}
+		if (flatSnapGrid == null || !flatSnapGrid.isValidFor(terminal1.TerminalOrigami, pPanel1.panelCamera(), 0)) {
+			flatSnapGrid = new SnapGrid(pPanel1.panelCamera().alignmentPoints2d(terminal1.TerminalOrigami),
+					terminal1.TerminalOrigami, pPanel1.panelCamera(), 0);
 		}
-		if (v1ujX != -1) {
-			ruler1X = v1ujX;
-			ruler1Y = v1ujY;
+		return flatSnapGrid;
+	}
+
+	private boolean snap1(int radius) {
+
+		SnapGrid grid = snapGrid();
+		int osztohely = grid.nearest(ruler1X - oPanel1.panelCamera().getXShift(),
+				ruler1Y - oPanel1.panelCamera().getYShift(), radius);
+		if (osztohely != -1) {
+			ruler1X = grid.getX(osztohely) + oPanel1.panelCamera().getXShift();
+			ruler1Y = grid.getY(osztohely) + oPanel1.panelCamera().getYShift();
 			return true;
 		}
 		return false;
@@ -3348,24 +3127,12 @@ public class OrigamiEditorUI extends JFrame {
 
 	private boolean snap2(int sugar) {
 
-		int v2ujX = -1;
-		int v2ujY = -1;
-
-		for (int[] osztohely : oPanel1.panelCamera().alignmentPoints(terminal1.TerminalOrigami, snap2, snap3, snap4)) {
-
-			if ((ruler2X - oPanel1.panelCamera().getXShift() - osztohely[0])
-					* (ruler2X - oPanel1.panelCamera().getXShift() - osztohely[0])
-					+ (ruler2Y - oPanel1.panelCamera().getYShift() - osztohely[1])
-							* (ruler2Y - oPanel1.panelCamera().getYShift() - osztohely[1]) < sugar) {
-
-				v2ujX = osztohely[0] + oPanel1.panelCamera().getXShift();
-				v2ujY = osztohely[1] + oPanel1.panelCamera().getYShift();
-				break;
-			}
-		}
-		if (v2ujX != -1) {
-			ruler2X = v2ujX;
-			ruler2Y = v2ujY;
+		SnapGrid grid = snapGrid();
+		int osztohely = grid.nearest(ruler2X - oPanel1.panelCamera().getXShift(),
+				ruler2Y - oPanel1.panelCamera().getYShift(), sugar);
+		if (osztohely != -1) {
+			ruler2X = grid.getX(osztohely) + oPanel1.panelCamera().getXShift();
+			ruler2Y = grid.getY(osztohely) + oPanel1.panelCamera().getYShift();
 			return true;
 		}
 		return false;
@@ -3373,23 +3140,12 @@ public class OrigamiEditorUI extends JFrame {
 
 	private int[] flatSnap(int x, int y, int radius) {
 
-		int ujX = -1;
-		int ujY = -1;
-
-		for (int[] osztohely : pPanel1.panelCamera().alignmentPoints2d(terminal1.TerminalOrigami)) {
-
-			if ((x - pPanel1.panelCamera().getXShift() - osztohely[0])
-					* (x - pPanel1.panelCamera().getXShift() - osztohely[0])
-					+ (y - pPanel1.panelCamera().getYShift() - osztohely[1])
-							* (y - pPanel1.panelCamera().getYShift() - osztohely[1]) < radius) {
-
-				ujX = osztohely[0] + pPanel1.panelCamera().getXShift();
-				ujY = osztohely[1] + pPanel1.panelCamera().getYShift();
-				break;
-			}
-		}
-		if (ujX != -1) {
-			return new int[] { ujX, ujY };
+		SnapGrid grid = flatSnapGrid();
+		int osztohely = grid.nearest(x - pPanel1.panelCamera().getXShift(), y - pPanel1.panelCamera().getYShift(),
+				radius);
+		if (osztohely != -1) {
+			return new int[] { grid.getX(osztohely) + pPanel1.panelCamera().getXShift(),
+					grid.getY(osztohely) + pPanel1.panelCamera().getYShift() };
 		}
 		return new int[] { x, y };
 	}
@@ -3469,11 +3225,510 @@ public class OrigamiEditorUI extends JFrame {
 	private JCheckBoxMenuItem ui_view_zoom;
 	private JCheckBoxMenuItem ui_view_best;
 	private JCheckBoxMenuItem ui_view_timeline;
+	private JCheckBoxMenuItem ui_view_stats;
 	private JMenuItem ui_view_options;
 	private JSeparator separator;
 	private JSeparator separator_1;
 	// End of variables declaration//GEN-END:variables
 
+	private void loadBaseModels() {
+
+		final BaseModels bases = new BaseModels();
+		final ArrayList<String> basenames = bases.names();
+		final List<JMenuItem> baseitems = new ArrayList<>();
+		for (int i = 0; i < basenames.size(); i++) {
+
+			final int ind = i;
+			final JMenuItem baseitem = new JMenuItem(Dictionary.getString(basenames.get(i)));
+			baseitem.addActionListener(new ActionListener() {
+				@Override
+				public void actionPerformed(ActionEvent evt) {
+
+					if (!saved) {
+						if (!dialogManager1.canICloseFile()) {
+							return;
+						}
+					}
+					filepath = null;
+					try (java.io.InputStream fis = bases.getFile(basenames.get(ind))) {
+
+						terminal1.TerminalOrigami = OrigamiIO.read_gen2(fis, null);
+						terminal1.clearHistory();
+
+						oPanel1.update(terminal1.TerminalOrigami);
+						pPanel1.update(terminal1.TerminalOrigami);
+
+						oPanel1.panelCamera().unadjust(terminal1.TerminalOrigami);
+						oPanel1.resetZoom();
+						pPanel1.panelCamera().unadjust(terminal1.TerminalOrigami);
+						pPanel1.resetZoom();
+						if (alwaysInMiddle) {
+							oPanel1.panelCamera().adjust(terminal1.TerminalOrigami);
+						}
+						oPanel1.randomizeFrontColor();
+						oPanel1.panelCamera().setOrthogonalView(0);
+						rotation_angle = 0;
+						defaultify();
+						saved = true;
+						setTitle("Origami Editor 3D");
+					}
+					catch (Exception ex) {
+						JOptionPane.showMessageDialog(OrigamiEditorUI.this, Dictionary.getString("h005"));
+					}
+					foldNumber = terminal1.TerminalOrigami.getHistoryPointer();
+					changeListenerShutUp = true;
+					timeSlider.setMaximum(terminal1.TerminalOrigami.getHistory().size());
+					changeListenerShutUp = false;
+					timeSlider.setValue(terminal1.TerminalOrigami.getHistoryPointer());
+				}
+			});
+			ui_file_new_bases.add(baseitem);
+			baseitems.add(baseitem);
+		}
+
+		// Probing the models may take a while if they are not indexed yet
+		Thread probe = new Thread(new Runnable() {
+			@Override
+			public void run() {
+
+				for (int i = 0; i < basenames.size(); i++) {
+					try {
+						showModelInfo(baseitems.get(i), bases.getInfo(basenames.get(i), modelIndex()));
+					}
+					catch (Exception ex) {
+					}
+				}
+				saveModelIndex();
+			}
+		}, "Model info");
+		probe.setDaemon(true);
+		probe.start();
+	}
+
+	private void loadExampleModels() {
+
+		final ExampleModels examples = new ExampleModels();
+		final ArrayList<String> modnames = examples.names();
+		final List<JMenuItem> moditems = new ArrayList<>();
+		for (int i = 0; i < modnames.size(); i++) {
+			final int ind = i;
+			final JMenuItem modelitem = new JMenuItem(Dictionary.getString(modnames.get(i)));
+			modelitem.addActionListener(new ActionListener() {
+				@Override
+				public void actionPerformed(ActionEvent evt) {
+
+					if (!saved) {
+						if (!dialogManager1.canICloseFile()) {
+							return;
+						}
+					}
+					filepath = null;
+					try (java.io.InputStream fis = examples.getFile(modnames.get(ind))) {
+
+						int papercolor = oPanel1.getFrontColor();
+						int[] rgb = { (papercolor >>> 16) & 0xFF, (papercolor >>> 8) & 0xFF, papercolor & 0xFF };
+
+						terminal1.TerminalOrigami = OrigamiIO.read_gen2(fis, rgb);
+						terminal1.clearHistory();
+
+						oPanel1.setFrontColor(rgb[0] * 0x10000 + rgb[1] * 0x100 + rgb[2]);
+
+						oPanel1.update(terminal1.TerminalOrigami);
+						pPanel1.update(terminal1.TerminalOrigami);
+
+						oPanel1.panelCamera().unadjust(terminal1.TerminalOrigami);
+						oPanel1.resetZoom();
+						pPanel1.panelCamera().unadjust(terminal1.TerminalOrigami);
+						pPanel1.resetZoom();
+						if (alwaysInMiddle) {
+							oPanel1.panelCamera().adjust(terminal1.TerminalOrigami);
+						}
+						oPanel1.panelCamera().setOrthogonalView(0);
+						rotation_angle = 0;
+						defaultify();
+						saved = true;
+						setTitle("Origami Editor 3D");
+					}
+					catch (Exception ex) {
+						JOptionPane.showMessageDialog(OrigamiEditorUI.this, Dictionary.getString("h005"));
+					}
+					foldNumber = terminal1.TerminalOrigami.getHistoryPointer();
+					changeListenerShutUp = true;
+					timeSlider.setMaximum(terminal1.TerminalOrigami.getHistory().size());
+					changeListenerShutUp = false;
+					timeSlider.setValue(terminal1.TerminalOrigami.getHistoryPointer());
+				}
+			});
+			ui_file_example.add(modelitem);
+			moditems.add(modelitem);
+		}
+
+		// Probing the models may take a while if they are not indexed yet
+		Thread probe = new Thread(new Runnable() {
+			@Override
+			public void run() {
+
+				for (int i = 0; i < modnames.size(); i++) {
+					try {
+						showModelInfo(moditems.get(i), examples.getInfo(modnames.get(i), modelIndex()));
+					}
+					catch (Exception ex) {
+					}
+				}
+				saveModelIndex();
+			}
+		}, "Model info");
+		probe.setDaemon(true);
+		probe.start();
+	}
+
+	/**
+	 * Sets the tooltip of a menu item to the information about a model on the
+	 * event dispatch thread.
+	 */
+	private void showModelInfo(final JMenuItem item, final OriInfo info) {
+
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				item.setToolTipText(modelInfoText(info));
+			}
+		});
+	}
+
+	private synchronized OriIndex modelIndex() {
+
+		if (modelIndex == null) {
+			modelIndex = OriIndex.getDefault();
+		}
+		return modelIndex;
+	}
+
+	private void saveModelIndex() {
+
+		try {
+			modelIndex().save();
+		}
+		catch (IOException ex) {
+		}
+	}
+
+	private String modelInfoText(OriInfo info) {
+		return Dictionary.getString("ui.file.model_info", info.getPaperType(), info.getSteps(), info.getEffort());
+	}
+
+	//
+	// MODEL WORKER
+	//
+	private static ExecutorService newModelWorker() {
+
+		return Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+
+				Thread thread = new Thread(r, "Model worker");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Executes the given OrigamiScript commands on the model worker instead of
+	 * the event dispatch thread. Jobs are run one at a time in the order they
+	 * have been submitted. While there are unfinished jobs, the panels display
+	 * a snapshot of the origami taken before the first one, the editing
+	 * controls are disabled, and a progress indicator with a cancel button is
+	 * shown if the work takes longer than {@link #model_progress_delay}
+	 * milliseconds. <br>
+	 * Once the last job has finished, the new state of the origami is published
+	 * to both panels at once, and the listeners of all the finished jobs are
+	 * called in order. <br>
+	 * No jobs are accepted while cancelled ones are being abandoned.
+	 */
+	private void runModelJob(OrigamiScriptTerminal.AccessMode access, ModelJobListener listener,
+			String... commands) {
+
+		if (modelCancelling) {
+			return;
+		}
+		final ModelJob job = new ModelJob(commands, access, listener);
+		if (modelJobs.isEmpty()) {
+
+			modelBackup = terminal1.TerminalOrigami.snapshot();
+			modelBackupHistory = new ArrayList<>(terminal1.getHistory());
+			oPanel1.update(modelBackup);
+			pPanel1.update(modelBackup);
+			setModelControlsEnabled(false);
+			modelProgressTimer.restart();
+		}
+		modelJobs.add(job);
+
+		job.future = modelWorker.submit(new Runnable() {
+			@Override
+			public void run() {
+
+				try {
+					for (String command : job.commands) {
+
+						if (job.access == null) {
+							terminal1.execute(command);
+						}
+						else {
+							terminal1.execute(command, job.access);
+						}
+					}
+				}
+				catch (Exception ex) {
+					job.error = ex;
+				}
+				SwingUtilities.invokeLater(new Runnable() {
+					@Override
+					public void run() {
+						modelJobFinished(job);
+					}
+				});
+			}
+		});
+	}
+
+	private void runModelJob(ModelJobListener listener, String... commands) {
+		runModelJob(null, listener, commands);
+	}
+
+	private boolean isModelBusy() {
+		return !modelJobs.isEmpty();
+	}
+
+	private void modelJobFinished(ModelJob job) {
+
+		// Either cancelled, or there are more jobs to wait for
+		if (modelCancelling || modelJobs.isEmpty() || modelJobs.get(modelJobs.size() - 1) != job) {
+			return;
+		}
+		List<ModelJob> finished = new ArrayList<>(modelJobs);
+		modelJobs.clear();
+		endModelJobs();
+
+		oPanel1.update(terminal1.TerminalOrigami);
+		pPanel1.update(terminal1.TerminalOrigami);
+		for (ModelJob fjob : finished) {
+			fjob.listener.jobFinished(fjob.error);
+		}
+		updateTimeline();
+	}
+
+	/**
+	 * Abandons every unfinished model job and restores the origami to the
+	 * state it was in before the first one. <br>
+	 * The job being executed only stops between two commands, and it keeps
+	 * changing the terminal until then, so the origami is only restored once
+	 * the model worker has nothing left to do. Until that, the model stays
+	 * busy.
+	 */
+	private void cancelModelJobs() {
+
+		if (modelJobs.isEmpty() || modelCancelling) {
+			return;
+		}
+		modelCancelling = true;
+		for (ModelJob job : modelJobs) {
+			job.future.cancel(true);
+		}
+		modelWorker.execute(new Runnable() {
+			@Override
+			public void run() {
+
+				SwingUtilities.invokeLater(new Runnable() {
+					@Override
+					public void run() {
+						modelJobsCancelled();
+					}
+				});
+			}
+		});
+	}
+
+	private void modelJobsCancelled() {
+
+		modelCancelling = false;
+		modelJobs.clear();
+		terminal1.TerminalOrigami = modelBackup;
+		terminal1.getHistory().clear();
+		terminal1.getHistory().addAll(modelBackupHistory);
+		endModelJobs();
+
+		oPanel1.update(terminal1.TerminalOrigami);
+		pPanel1.update(terminal1.TerminalOrigami);
+		rotation_angle = 0;
+		oPanel1.hideProtractor();
+		defaultify();
+		updateTimeline();
+	}
+
+	private void endModelJobs() {
+
+		modelProgressTimer.stop();
+		if (modelProgress != null) {
+
+			modelProgress.setVisible(false);
+			modelProgress.dispose();
+			modelProgress = null;
+		}
+		modelBackup = null;
+		modelBackupHistory = null;
+		setModelControlsEnabled(true);
+	}
+
+	private void showModelProgress() {
+
+		if (modelJobs.isEmpty() || modelProgress != null) {
+			return;
+		}
+		modelProgress = new JDialog(this);
+		modelProgress.setUndecorated(true);
+		JLabel loadmsg = new JLabel(Dictionary.getString("message.info.working"));
+		loadmsg.setForeground(Color.RED);
+		JProgressBar progress = new JProgressBar();
+		progress.setIndeterminate(true);
+		JButton cancel = new JButton(Dictionary.getString("timeout_stop"));
+		cancel.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent evt) {
+				cancelModelJobs();
+			}
+		});
+		modelProgress.getContentPane().setLayout(new BorderLayout());
+		modelProgress.getContentPane().add(loadmsg, java.awt.BorderLayout.NORTH);
+		modelProgress.getContentPane().add(progress, java.awt.BorderLayout.CENTER);
+		modelProgress.getContentPane().add(cancel, java.awt.BorderLayout.EAST);
+		modelProgress.getContentPane().setBackground(Color.YELLOW);
+		modelProgress.pack();
+		modelProgress.setResizable(false);
+		modelProgress.setLocationRelativeTo(this);
+		modelProgress.setVisible(true);
+	}
+
+	/**
+	 * Shows the progress of an export in the export window, or removes it from
+	 * there and reports the result when the export is over.
+	 */
+	private void exportJobChanged(ExportQueue.Job job, ExportQueue.State state, int done, int total) {
+
+		if (state == ExportQueue.State.FINISHED || state == ExportQueue.State.FAILED
+				|| state == ExportQueue.State.CANCELLED) {
+
+			if (exportBars.remove(job) != null) {
+				layoutExportProgress();
+			}
+			switch (state) {
+			case FINISHED:
+				JOptionPane.showMessageDialog(this, Dictionary.getString("message.info.export_finished"), "Message",
+						javax.swing.JOptionPane.PLAIN_MESSAGE);
+				break;
+			case FAILED:
+				JOptionPane.showMessageDialog(this, String.valueOf(job.getError().getMessage()).replace('/', (char) 10),
+						"Error", javax.swing.JOptionPane.ERROR_MESSAGE);
+				break;
+			default:
+				break;
+			}
+			return;
+		}
+
+		JProgressBar bar = exportBars.get(job);
+		if (bar == null) {
+
+			bar = new JProgressBar();
+			bar.setStringPainted(true);
+			bar.setString(job.getName() + ": " + new File(job.getFilename()).getName());
+			exportBars.put(job, bar);
+			layoutExportProgress();
+		}
+		bar.setIndeterminate(total == 0);
+		bar.setMaximum(Math.max(total, 1));
+		bar.setValue(done);
+	}
+
+	private void layoutExportProgress() {
+
+		if (exportBars.isEmpty()) {
+
+			if (exportProgress != null) {
+
+				exportProgress.setVisible(false);
+				exportProgress.dispose();
+				exportProgress = null;
+			}
+			return;
+		}
+		if (exportProgress == null) {
+
+			exportProgress = new JDialog(this);
+			exportProgress.setUndecorated(true);
+			exportProgress.setFocusableWindowState(false);
+			exportProgress.getContentPane().setBackground(Color.YELLOW);
+		}
+		JPanel rows = new JPanel();
+		rows.setOpaque(false);
+		rows.setLayout(new BoxLayout(rows, BoxLayout.Y_AXIS));
+		JLabel loadmsg = new JLabel(Dictionary.getString("message.info.exporting"));
+		loadmsg.setForeground(Color.RED);
+		rows.add(loadmsg);
+		for (final Map.Entry<ExportQueue.Job, JProgressBar> entry : exportBars.entrySet()) {
+
+			JPanel row = new JPanel(new BorderLayout());
+			row.setOpaque(false);
+			JButton cancel = new JButton(Dictionary.getString("timeout_stop"));
+			cancel.addActionListener(new ActionListener() {
+				@Override
+				public void actionPerformed(ActionEvent evt) {
+					entry.getKey().cancel();
+				}
+			});
+			row.add(entry.getValue(), BorderLayout.CENTER);
+			row.add(cancel, BorderLayout.EAST);
+			rows.add(row);
+		}
+		exportProgress.getContentPane().removeAll();
+		exportProgress.getContentPane().setLayout(new BorderLayout());
+		exportProgress.getContentPane().add(rows, BorderLayout.CENTER);
+		exportProgress.pack();
+		exportProgress.setResizable(false);
+		// Out of the way in the bottom right corner, since the editor stays usable
+		exportProgress.setLocation(getX() + getWidth() - exportProgress.getWidth() - 10,
+				getY() + getHeight() - exportProgress.getHeight() - 10);
+		exportProgress.setVisible(true);
+	}
+
+	private void setModelControlsEnabled(boolean enabled) {
+
+		for (int i = 0; i < jMenuBar1.getMenuCount(); i++) {
+			jMenuBar1.getMenu(i).setEnabled(enabled);
+		}
+		for (Component c : ui_leftbar.getComponents()) {
+			if (c instanceof AbstractButton) {
+				c.setEnabled(enabled);
+			}
+		}
+		for (Component c : ui_rightbar.getComponents()) {
+			if (c instanceof AbstractButton) {
+				c.setEnabled(enabled);
+			}
+		}
+		timeSlider.setEnabled(enabled);
+		jTextField1.setEnabled(enabled);
+	}
+
+	private void updateTimeline() {
+
+		foldNumber = terminal1.TerminalOrigami.getHistoryPointer();
+		changeListenerShutUp = true;
+		timeSlider.setMaximum(terminal1.TerminalOrigami.getHistory().size());
+		changeListenerShutUp = false;
+		timeSlider.setValue(terminal1.TerminalOrigami.getHistoryPointer());
+	}
+
 	private void defaultify() {
 
 		EditorState = (SecondaryState = ControlState.STANDBY);
@@ -1,18 +1,26 @@
 package origamieditor3d.ui.panel;
 
+import java.awt.AlphaComposite;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Point;
+import java.awt.Polygon;
 import java.awt.RenderingHints;
 import java.awt.Toolkit;
 import java.awt.event.MouseEvent;
 import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 
 import origamieditor3d.graphics.Camera;
+import origamieditor3d.graphics.FrameStats;
+import origamieditor3d.graphics.PickBuffer;
+import origamieditor3d.origami.FoldPreview;
 import origamieditor3d.origami.Geometry;
+import origamieditor3d.origami.Origami;
 
 /**
  * @author Attila Bágyoni (ba-sz-at@users.sourceforge.net)
@@ -41,6 +49,19 @@ public class OrigamiPanel extends Panel {
 		displaymode = DisplayMode.GRADIENT;
 		rulerMode = RulerMode.Normal;
 		antialiasOn = true;
+		interactiveOn = false;
+		last_frame_time = 0;
+		texture_stamp = 0;
+		foldPreview = new FoldPreview(new Runnable() {
+			@Override
+			public void run() {
+				repaint();
+			}
+		});
+		frame_buffers = new BufferedImage[3];
+		shown_frame = -1;
+		latest_frame = -1;
+		hover_polygon = -1;
 	}
 
 	final static private int[] random_front_colors = { 0x000097, 0x24A0DF, 0x397E79, // blue
@@ -53,13 +74,26 @@ public class OrigamiPanel extends Panel {
 	private boolean linerOn;
 
 	private double[] tracker_im;
+	private double[] tracker_paper;
 	private int liner_grab_index;
 	private int[] alignment_point;
 	private int paper_front_color;
 	private boolean previewOn;
+	final private FoldPreview foldPreview;
 	private DisplayMode displaymode;
 	private Integer protractor_angle;
 	private boolean antialiasOn;
+	private boolean interactiveOn;
+	private volatile long last_frame_time;
+	private int texture_stamp;
+	private PickBuffer pick_buffer;
+	private int hover_polygon;
+
+	/**
+	 * If a full quality frame took longer than this many milliseconds, frames
+	 * painted during an interaction (e. g. dragging) will be drafts.
+	 */
+	final static public long frame_budget = 30;
 
 	public enum DisplayMode {
 
@@ -96,7 +130,9 @@ public class OrigamiPanel extends Panel {
 	}
 
 	public void previewOff() {
+
 		previewOn = false;
+		foldPreview.clear();
 	}
 
 	@Override
@@ -104,18 +140,9 @@ public class OrigamiPanel extends Panel {
 
 		tracker_x = x;
 		tracker_y = y;
+		tracker_paper = refkamera.deprojection(tracker_x, tracker_y);
 		try {
-			tracker_im = PanelOrigami
-					.find3dImageOf(
-							new double[] {
-									((double) tracker_x - refkamera.getXShift()
-											+ new Camera(refkamera.getXShift(), refkamera.getYShift(),
-													refkamera.getZoom()).projection0(refkamera.getCamPosition())[0])
-											/ refkamera.getZoom(),
-									((double) tracker_y - refkamera.getYShift()
-											+ new Camera(refkamera.getXShift(), refkamera.getYShift(),
-													refkamera.getZoom()).projection0(refkamera.getCamPosition())[1])
-											/ refkamera.getZoom() });
+			tracker_im = PanelOrigami.find3dImageOf(tracker_paper);
 		}
 		catch (Exception ex) {
 		}
@@ -172,6 +199,80 @@ public class OrigamiPanel extends Panel {
 		alignment_point = null;
 	}
 
+	/**
+	 * Returns the index of the frontmost polygon at the specified point of the
+	 * panel. The {@link PickBuffer ID buffer} behind it is only redrawn when the
+	 * origami or the view has changed.
+	 *
+	 * @return The index of the polygon, or -1 if there is none.
+	 */
+	public int polygonAt(int x, int y) {
+
+		int width = Math.max(getWidth(), 1);
+		int height = Math.max(getHeight(), 1);
+		if (pick_buffer == null || !pick_buffer.isValidFor(PanelOrigami, PanelCamera, width, height)) {
+			pick_buffer = new PickBuffer(PanelOrigami, PanelCamera, width, height);
+		}
+		return pick_buffer.polygonAt(x, y);
+	}
+
+	/**
+	 * Finds the point on the paper that is shown at the specified point of the
+	 * panel, on the frontmost polygon there.
+	 *
+	 * @return The 2D coordinates of the point, or {@code null} if no polygon
+	 *         is shown there.
+	 */
+	public double[] pickPaperPoint(int x, int y) {
+
+		int poly = polygonAt(x, y);
+		int[] ref = new int[3];
+		if (poly == -1 || !PanelCamera.isDrawable(poly, PanelOrigami, ref)) {
+			return null;
+		}
+
+		// Parallel projection keeps affine coordinates, so they can be taken
+		// on the screen and applied on the paper
+		double[] s0 = PanelCamera.projection(PanelOrigami.getVertices().get(ref[0]));
+		double[] s1 = PanelCamera.projection(PanelOrigami.getVertices().get(ref[1]));
+		double[] s2 = PanelCamera.projection(PanelOrigami.getVertices().get(ref[2]));
+		double ax = x - PanelCamera.getXShift() - s0[0], ay = y - PanelCamera.getYShift() - s0[1];
+		double e1x = s1[0] - s0[0], e1y = s1[1] - s0[1];
+		double e2x = s2[0] - s0[0], e2y = s2[1] - s0[1];
+		double det = e1x * e2y - e1y * e2x;
+
+		double[] p0 = PanelOrigami.getVertices2d().get(ref[0]);
+		double[] p1 = PanelOrigami.getVertices2d().get(ref[1]);
+		double[] p2 = PanelOrigami.getVertices2d().get(ref[2]);
+		if (det != 0) {
+
+			double l1 = (ax * e2y - ay * e2x) / det;
+			double l2 = (e1x * ay - e1y * ax) / det;
+			double[] point = { p0[0] + l1 * (p1[0] - p0[0]) + l2 * (p2[0] - p0[0]),
+					p0[1] + l1 * (p1[1] - p0[1]) + l2 * (p2[1] - p0[1]) };
+			if (PanelOrigami.findPolygonContaining(point) == poly) {
+				return point;
+			}
+		}
+
+		// Seen edge-on, or rounded off the polygon; its centroid will do
+		double[] centroid = { 0, 0 };
+		List<Integer> vertices = PanelOrigami.getPolygons().get(poly);
+		for (int vert : vertices) {
+
+			centroid[0] += PanelOrigami.getVertices2d().get(vert)[0] / vertices.size();
+			centroid[1] += PanelOrigami.getVertices2d().get(vert)[1] / vertices.size();
+		}
+		return centroid;
+	}
+
+	/**
+	 * Outlines the polygon at the specified index, or nothing if it is -1.
+	 */
+	public void setHoverPolygon(int index) {
+		hover_polygon = index;
+	}
+
 	public void displayProtractor(int angle) {
 		protractor_angle = angle;
 	}
@@ -192,6 +293,7 @@ public class OrigamiPanel extends Panel {
 		trackerOn = false;
 		alignment_point = null;
 		protractor_angle = null;
+		hover_polygon = -1;
 	}
 
 	public void setFrontColor(int rgb) {
@@ -215,7 +317,9 @@ public class OrigamiPanel extends Panel {
 	}
 
 	public void setTexture(BufferedImage tex) throws Exception {
+
 		PanelCamera.setTexture(tex);
+		texture_stamp++;
 	}
 
 	public void antialiasOn() {
@@ -230,45 +334,265 @@ public class OrigamiPanel extends Panel {
 		repaint();
 	}
 
-	@Override
-	public void paintComponent(Graphics g) {
+	/**
+	 * Signals that the user is dragging the view. Until {@link #interactiveOff()}
+	 * is called, frames will be drafts (flat shading, no antialiasing, sub-pixel
+	 * polygons skipped) whenever a full quality frame exceeds the
+	 * {@link #frame_budget}.
+	 */
+	public void interactiveOn() {
+		interactiveOn = true;
+	}
 
-		super.paintComponent(g);
-		if (ready_to_paint) {
+	public void interactiveOff() {
 
-			Graphics2D gx2d = (Graphics2D) g;
+		if (interactiveOn) {
+			interactiveOn = false;
+			repaint();
+		}
+	}
 
-			switch (displaymode) {
+	/**
+	 * Everything a frame of the model depends on. The origami and the camera are
+	 * snapshots, so the frame can be rendered off the event dispatch thread.
+	 */
+	private static class FrameRequest {
+
+		Origami source;
+		long version;
+		Origami origami;
+		Camera camera;
+		DisplayMode displaymode;
+		int color;
+		boolean antialias;
+		boolean draft;
+		int texture_stamp;
+		int width, height;
+	}
 
-			case UV:
-				PanelCamera.drawTexture(g, this.getWidth(), this.getHeight());
-				break;
+	// Triple buffering: the render thread never draws into the frame that is
+	// being shown or the one that is waiting to be shown.
+	final private Object frame_lock = new Object();
+	final private BufferedImage[] frame_buffers;
+	private int shown_frame, latest_frame;
+	private FrameRequest pending_request, last_request;
+	private Thread renderer;
+
+	/**
+	 * Asks the render thread for a new frame of the model, unless the last
+	 * request was for the same state. If the render thread is busy, only the
+	 * newest request will be rendered.
+	 */
+	private void requestFrame() {
+
+		boolean draft = interactiveOn && last_frame_time > frame_budget;
+		int width = Math.max(getWidth(), 1);
+		int height = Math.max(getHeight(), 1);
+		if (isModelLayerCurrent(draft, width, height)) {
+			return;
+		}
 
-			case GRADIENT:
-				PanelCamera.drawGradient(g, paper_front_color, PanelOrigami);
-				if (antialiasOn) {
-					gx2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-				}
-				PanelCamera.drawEdges(g, new Color(0, 0, 0, .5f), PanelOrigami);
-				break;
+		FrameRequest req = new FrameRequest();
+		req.source = PanelOrigami;
+		req.version = PanelOrigami.version();
+		req.camera = new Camera(PanelCamera);
+		req.displaymode = displaymode;
+		req.color = paper_front_color;
+		req.antialias = antialiasOn;
+		req.draft = draft;
+		req.texture_stamp = texture_stamp;
+		req.width = width;
+		req.height = height;
+
+		last_request = req;
+		req.origami = PanelOrigami.snapshot();
+
+		synchronized (frame_lock) {
+
+			pending_request = req;
+			if (renderer == null) {
+
+				renderer = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						renderLoop();
+					}
+				}, "OrigamiPanel renderer");
+				renderer.setDaemon(true);
+				renderer.start();
+			}
+			frame_lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Checks whether the last requested frame of the model is still valid, i. e.
+	 * only overlays like the ruler or the folding preview have changed since.
+	 * Called on every repaint, so it does not allocate anything.
+	 */
+	private boolean isModelLayerCurrent(boolean draft, int width, int height) {
+
+		FrameRequest req = last_request;
+		return req != null && req.source == PanelOrigami && req.version == PanelOrigami.version()
+				&& req.displaymode == displaymode && req.color == paper_front_color
+				&& req.antialias == antialiasOn && req.draft == draft && req.texture_stamp == texture_stamp
+				&& req.width == width && req.height == height
+				&& req.camera.getXShift() == PanelCamera.getXShift()
+				&& req.camera.getYShift() == PanelCamera.getYShift()
+				&& req.camera.getZoom() == PanelCamera.getZoom()
+				&& Arrays.equals(req.camera.getCamPosition(), PanelCamera.getCamPosition())
+				&& Arrays.equals(req.camera.getCamDirection(), PanelCamera.getCamDirection())
+				&& Arrays.equals(req.camera.getXAxis(), PanelCamera.getXAxis())
+				&& Arrays.equals(req.camera.getYAxis(), PanelCamera.getYAxis());
+	}
+
+	private void renderLoop() {
+
+		while (true) {
 
-			case PLAIN:
-				PanelCamera.drawFaces(g, paper_front_color, PanelOrigami);
-				if (antialiasOn) {
-					gx2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+			FrameRequest req;
+			int target;
+			synchronized (frame_lock) {
+
+				while (pending_request == null) {
+					try {
+						frame_lock.wait();
+					}
+					catch (InterruptedException ex) {
+						return;
+					}
+				}
+				req = pending_request;
+				pending_request = null;
+				target = 0;
+				while (target == shown_frame || target == latest_frame) {
+					target++;
 				}
-				PanelCamera.drawEdges(g, new Color(0, 0, 0, .5f), PanelOrigami);
-				break;
+			}
 
-			case WIREFRAME:
-				if (antialiasOn) {
-					gx2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+			BufferedImage frame = frame_buffers[target];
+			if (frame == null || frame.getWidth() != req.width || frame.getHeight() != req.height) {
+				frame = new BufferedImage(req.width, req.height, BufferedImage.TYPE_INT_ARGB);
+			}
+			Graphics2D g = frame.createGraphics();
+			g.setComposite(AlphaComposite.Clear);
+			g.fillRect(0, 0, req.width, req.height);
+			g.setComposite(AlphaComposite.SrcOver);
+
+			FrameStats stats = frameStats;
+			long frame_start = System.nanoTime();
+			try {
+				renderFrame(g, req, stats);
+			}
+			catch (Exception ex) {
+			}
+			g.dispose();
+			long frame_time = System.nanoTime() - frame_start;
+			if (!req.draft) {
+				last_frame_time = frame_time / 1000000;
+			}
+			if (stats != null) {
+				stats.frame(frame_time, req.origami.getPolygonsSize(), req.origami.getVerticesSize());
+			}
+
+			synchronized (frame_lock) {
+
+				frame_buffers[target] = frame;
+				latest_frame = target;
+			}
+			repaint();
+		}
+	}
+
+	/**
+	 * @param stats
+	 *            Where to record the time taken by each stage, or {@code null}.
+	 */
+	private void renderFrame(Graphics2D g, FrameRequest req, FrameStats stats) {
+
+		// The request's own camera is compared against on the event dispatch thread
+		Camera camera = new Camera(req.camera);
+		Origami origami = req.origami;
+		long stage_start = stats == null ? 0 : System.nanoTime();
+
+		switch (req.displaymode) {
+
+		case UV:
+			camera.drawTexture(g, req.width, req.height);
+			break;
+
+		case GRADIENT:
+			if (req.draft) {
+				camera.drawFaces(g, req.color, origami, 1);
+			}
+			else {
+				camera.drawGradient(g, req.color, origami);
+			}
+			break;
+
+		case PLAIN:
+			camera.drawFaces(g, req.color, origami, req.draft ? 1 : 0);
+			break;
+
+		case WIREFRAME:
+			break;
+		}
+		if (stats != null) {
+
+			long now = System.nanoTime();
+			stats.stage("faces", now - stage_start);
+			stage_start = now;
+		}
+
+		if (req.displaymode != DisplayMode.UV) {
+
+			if (req.antialias && !req.draft) {
+				g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+			}
+			camera.drawEdges(g, new Color(0, 0, 0, .5f), origami);
+		}
+		if (stats != null) {
+			stats.stage("edges", System.nanoTime() - stage_start);
+		}
+	}
+
+	@Override
+	public void paintComponent(Graphics g) {
+
+		FrameStats stats = frameStats;
+		long overlay_start = 0;
+		super.paintComponent(g);
+		if (ready_to_paint) {
+
+			requestFrame();
+			BufferedImage frame = null;
+			synchronized (frame_lock) {
+
+				if (latest_frame != -1) {
+					shown_frame = latest_frame;
+					frame = frame_buffers[shown_frame];
 				}
-				PanelCamera.drawEdges(g, new Color(0, 0, 0, .5f), PanelOrigami);
-				break;
 			}
+			if (frame != null) {
+				g.drawImage(frame, 0, 0, null);
+			}
+		}
+		if (stats != null) {
+			overlay_start = System.nanoTime();
+		}
+		if (hover_polygon != -1 && hover_polygon < PanelOrigami.getPolygonsSize()) {
 
-			gx2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+			Graphics2D g2 = (Graphics2D) g;
+			Polygon outline = new Polygon();
+			for (int vert : PanelOrigami.getPolygons().get(hover_polygon)) {
+
+				double[] proj = PanelCamera.projection(PanelOrigami.getVertices().get(vert));
+				outline.addPoint((int) proj[0] + PanelCamera.getXShift(), (int) proj[1] + PanelCamera.getYShift());
+			}
+			g2.setColor(Color.ORANGE);
+			g2.setStroke(new BasicStroke(2));
+			g2.drawPolygon(outline);
+			g2.setStroke(new BasicStroke(1));
 		}
 		if (alignment_point != null) {
 
@@ -320,7 +644,11 @@ public class OrigamiPanel extends Panel {
 					vonalzoNV = Geometry.vectorDiff(vonalzoPT, vonalzoPT1);
 				}
 
-				PanelCamera.drawPreview(g, Color.green, PanelOrigami, vonalzoPT, vonalzoNV);
+				Origami folded = foldPreview.request(PanelOrigami, vonalzoPT, vonalzoNV, protractor_angle,
+						trackerOn ? tracker_paper : null);
+				if (folded != null) {
+					PanelCamera.drawEdges(g, Color.green, folded);
+				}
 			}
 
 			g.setColor(Color.red);
@@ -370,6 +698,11 @@ public class OrigamiPanel extends Panel {
 		if (protractor_angle != null) {
 			drawProtractor(g, protractor_angle);
 		}
+		if (stats != null) {
+
+			stats.stage("overlays", System.nanoTime() - overlay_start);
+			stats.paint(g, 8, 20);
+		}
 	}
 
 	private void drawProtractor(Graphics g, int angle) {
@@ -3,6 +3,7 @@ package origamieditor3d.ui.panel;
 import javax.swing.JPanel;
 
 import origamieditor3d.graphics.Camera;
+import origamieditor3d.graphics.FrameStats;
 import origamieditor3d.origami.Origami;
 
 /**
@@ -23,6 +24,7 @@ public abstract class Panel extends JPanel {
     protected Integer tracker_x, tracker_y;
     protected boolean trackerOn;
     protected boolean ready_to_paint;
+    protected volatile FrameStats frameStats;
     
     public abstract void reset();
 
@@ -47,6 +49,29 @@ public abstract class Panel extends JPanel {
         ready_to_paint = true;
     }
     
+    /**
+     * Turns the performance overlay on or off. No statistics are collected
+     * while it is off.
+     */
+    public void setFrameStatsEnabled(boolean enabled) {
+        
+        if (!enabled) {
+            frameStats = null;
+        }
+        else if (frameStats == null) {
+            frameStats = new FrameStats();
+        }
+        repaint();
+    }
+    
+    /**
+     * Returns the rendering statistics of this panel, or {@code null} if the
+     * performance overlay is off.
+     */
+    public FrameStats getFrameStats() {
+        return frameStats;
+    }
+    
     public void setRulerMode(RulerMode mode) {
         rulerMode = mode;
     }
@@ -1,5 +1,6 @@
 package origamieditor3d.ui.panel;
 
+import java.awt.AlphaComposite;
 import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Graphics;
@@ -7,9 +8,13 @@ import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Toolkit;
 import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
 
 import origamieditor3d.graphics.Camera;
+import origamieditor3d.graphics.FrameStats;
 import origamieditor3d.origami.Geometry;
+import origamieditor3d.origami.Origami;
 
 /**
  * @author Attila Bágyoni (ba-sz-at@users.sourceforge.net)
@@ -26,6 +31,14 @@ public class PaperPanel extends Panel {
 	private Integer[][] liner_triangle;
 	private int liner_grab_index;
 
+	// The crease pattern is rasterized only when one of these changes.
+	private BufferedImage crease_layer;
+	private Origami layer_origami;
+	private long layer_version;
+	private double layer_zoom;
+	private int layer_xshift, layer_yshift;
+	private double[] layer_campos;
+
 	public Integer tracker_x() {
 		return tracker_x;
 	}
@@ -214,13 +227,15 @@ public class PaperPanel extends Panel {
 	@Override
 	public void paintComponent(Graphics g) {
 
+		FrameStats stats = frameStats;
+		long frame_start = System.nanoTime();
 		super.paintComponent(g);
 		if (ready_to_paint) {
-			try {
-				PanelCamera.drawCreasePattern(g, Color.black, PanelOrigami);
-			}
-			catch (Exception ex) {
-			}
+			g.drawImage(creaseLayer(), 0, 0, null);
+		}
+		long overlay_start = System.nanoTime();
+		if (stats != null) {
+			stats.stage("crease pattern", overlay_start - frame_start);
 		}
 		g.setColor(Color.red);
 		if (trackerOn) {
@@ -255,6 +270,53 @@ public class PaperPanel extends Panel {
 			g.drawLine(liner_triangle[2][0] - 3, liner_triangle[2][1] + 3, liner_triangle[2][0] + 3,
 					liner_triangle[2][1] - 3);
 		}
+		if (stats != null) {
+
+			long now = System.nanoTime();
+			stats.stage("overlays", now - overlay_start);
+			stats.frame(now - frame_start, PanelOrigami.getPolygonsSize(), PanelOrigami.getVerticesSize());
+			stats.paint(g, 8, 20);
+		}
+	}
+
+	/**
+	 * Returns the crease pattern rendered into a transparent image of the size of
+	 * this panel. The image is only redrawn if the origami, the zoom, the shift or
+	 * the size of the panel has changed since the last call.
+	 */
+	private BufferedImage creaseLayer() {
+
+		int width = Math.max(getWidth(), 1);
+		int height = Math.max(getHeight(), 1);
+		if (crease_layer != null && crease_layer.getWidth() == width && crease_layer.getHeight() == height
+				&& layer_origami == PanelOrigami && layer_version == PanelOrigami.version()
+				&& layer_zoom == PanelCamera.getZoom() && layer_xshift == PanelCamera.getXShift()
+				&& layer_yshift == PanelCamera.getYShift()
+				&& Arrays.equals(layer_campos, PanelCamera.getCamPosition())) {
+			return crease_layer;
+		}
+
+		if (crease_layer == null || crease_layer.getWidth() != width || crease_layer.getHeight() != height) {
+			crease_layer = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		}
+		Graphics2D g = crease_layer.createGraphics();
+		g.setComposite(AlphaComposite.Clear);
+		g.fillRect(0, 0, width, height);
+		g.setComposite(AlphaComposite.SrcOver);
+		try {
+			PanelCamera.drawCreasePattern(g, Color.black, PanelOrigami);
+		}
+		catch (Exception ex) {
+		}
+		g.dispose();
+
+		layer_origami = PanelOrigami;
+		layer_version = PanelOrigami.version();
+		layer_zoom = PanelCamera.getZoom();
+		layer_xshift = PanelCamera.getXShift();
+		layer_yshift = PanelCamera.getYShift();
+		layer_campos = PanelCamera.getCamPosition().clone();
+		return crease_layer;
 	}
 
 	@Override